@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.github.gonalez.zenbo.Responses.buildCachingFutureForRequest;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.ImmutableRequestOptions;
+import io.github.gonalez.zenbo.RequestCoalescer;
+import io.github.gonalez.zenbo.ResponseFutureCache;
+import io.github.gonalez.zenbo.internal.DefaultResponseCache;
+import io.github.gonalez.zenbo.testing.MockMojangServer;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidResponse;
+import io.github.gonalez.zenbo.username.UsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.UsernameToUuidResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of {@code Responses#buildCachingFutureForRequest} on its own, with a lookup that
+ * completes immediately, when the response is cached and when it is not.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingPipelineBenchmark {
+  private final ResponseFutureCache cache = new DefaultResponseCache();
+  private final RequestCoalescer coalescer = new RequestCoalescer();
+
+  private final ListenableFuture<UsernameToUuidResponse> response = Futures.immediateFuture(
+      ImmutableUsernameToUuidResponse.builder()
+          .uuid(MockMojangServer.uuidOf("Notch"))
+          .build());
+
+  private final UsernameToUuidRequest cachedRequest = ImmutableUsernameToUuidRequest.builder()
+      .username("Notch")
+      .options(ImmutableRequestOptions.builder().cacheable(true).build())
+      .build();
+  private final UsernameToUuidRequest uncachedRequest = ImmutableUsernameToUuidRequest.builder()
+      .username("jeb_")
+      .build();
+
+  @Setup
+  public void setUp() {
+    cache.put(cachedRequest, response);
+  }
+
+  @Benchmark
+  public UsernameToUuidResponse hit() throws Exception {
+    return buildCachingFutureForRequest(cachedRequest, cache, coalescer, directExecutor(), () -> response).get();
+  }
+
+  @Benchmark
+  public UsernameToUuidResponse miss() throws Exception {
+    return buildCachingFutureForRequest(uncachedRequest, cache, coalescer, directExecutor(), () -> response).get();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.github.gonalez.zenbo.ImmutableHostOptions;
+import io.github.gonalez.zenbo.ZenboClient;
+import io.github.gonalez.zenbo.testing.MockMojangServer;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.UsernameApi;
+import io.github.gonalez.zenbo.username.UsernameToUuidResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a burst of lookups takes depending on the number of concurrent requests allowed per
+ * host, which decides how many connections are opened to the host and how many lookups wait in the queue
+ * of the http client. The defaults of {@link io.github.gonalez.zenbo.HostOptions} are chosen from it.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConnectionTuningBenchmark {
+  @Param({"5", "16", "64", "256"})
+  public int maxConcurrentRequests;
+
+  @Param({"500"})
+  public int concurrentLookups;
+
+  @Param({"50"})
+  public long latencyMillis;
+
+  private MockMojangServer server;
+  private ZenboClient client;
+  private UsernameApi usernameApi;
+
+  @Setup
+  public void setUp() throws Exception {
+    server = new MockMojangServer(latencyMillis);
+    client = ZenboClient.newBuilder()
+        .baseHttpClient(server.httpClientBuilder().build())
+        .defaultHostOptions(ImmutableHostOptions.builder()
+            .maxConcurrentRequests(maxConcurrentRequests)
+            .maxIdleConnections(maxConcurrentRequests)
+            .build())
+        .build();
+    usernameApi = UsernameApi.newBuilder()
+        .transport(client.transport())
+        .executor(MoreExecutors.directExecutor())
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    client.close();
+    server.close();
+  }
+
+  @Benchmark
+  public List<UsernameToUuidResponse> burst() throws Exception {
+    List<ListenableFuture<UsernameToUuidResponse>> futures = new ArrayList<>(concurrentLookups);
+    for (int i = 0; i < concurrentLookups; i++) {
+      futures.add(usernameApi.usernameToUuid(
+          ImmutableUsernameToUuidRequest.builder()
+              .username("player" + i)
+              .build()));
+    }
+    return Futures.allAsList(futures).get();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import io.github.gonalez.zenbo.testing.MockMojangServer;
+import io.github.gonalez.zenbo.username.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete uncached lookups through the {@link UsernameApi} against a local mock server without
+ * added latency, so the result is the library overhead plus a loopback HTTP round trip.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndToEndLookupBenchmark {
+  private final UUID notchUuid = MockMojangServer.uuidOf("Notch");
+
+  private MockMojangServer server;
+  private UsernameApi usernameApi;
+
+  @Setup
+  public void setUp() throws Exception {
+    server = new MockMojangServer(0);
+    usernameApi = UsernameApi.newBuilder()
+        .httpClient(server.httpClientBuilder().build())
+        .executor(directExecutor())
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    server.close();
+  }
+
+  @Benchmark
+  public UsernameToUuidResponse usernameToUuid() throws Exception {
+    return usernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder()
+            .username("Notch")
+            .build())
+        .get();
+  }
+
+  @Benchmark
+  public UuidToProfileAndSkinCapeResponse uuidToProfileAndSkinCape() throws Exception {
+    return usernameApi.uuidToProfileAndSkinCape(
+        ImmutableUuidToProfileAndSkinCapeRequest.builder()
+            .uuid(notchUuid)
+            .build())
+        .get();
+  }
+
+  @Benchmark
+  public UsernamesToUuidsResponse usernamesToUuids() throws Exception {
+    return usernameApi.usernamesToUuids(
+        ImmutableUsernamesToUuidsRequest.builder()
+            .addUsernames("Notch", "jeb_", "Dinnerbone", "Grumm", "Searge")
+            .build())
+        .get();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.gonalez.zenbo.OkResponses;
+import io.github.gonalez.zenbo.testing.MockMojangServer;
+import io.github.gonalez.zenbo.username.ImmutableTextures;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidResponse;
+import io.github.gonalez.zenbo.username.StringUuids;
+import io.github.gonalez.zenbo.username.UsernameToUuidResponse;
+import io.github.gonalez.zenbo.username.UuidToProfileAndSkinCapeResponse;
+import io.github.gonalez.zenbo.username.internal.UsernameJsonDecoders;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the responses through the json tree of {@link OkResponses#responseToJson(Response)}
+ * against the streaming decoders of {@link UsernameJsonDecoders}. Run with {@code -prof gc} to compare
+ * the allocations per decoded response.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDecodingBenchmark {
+  private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json");
+  private static final Request REQUEST = new Request.Builder().url("http://localhost/").build();
+
+  private byte[] usernameToUuidBody;
+  private byte[] profileBody;
+
+  @Setup
+  public void setUp() {
+    usernameToUuidBody = MockMojangServer.usernameToUuidJson("Notch").getBytes(StandardCharsets.UTF_8);
+    profileBody = MockMojangServer.profileJson("Notch").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public UsernameToUuidResponse usernameToUuidTree() throws IOException {
+    return ImmutableUsernameToUuidResponse.builder()
+        .uuid(StringUuids.uuidFromString(
+            OkResponses.responseToJson(response(usernameToUuidBody)).getAsJsonObject().get("id").getAsString()))
+        .build();
+  }
+
+  @Benchmark
+  public UsernameToUuidResponse usernameToUuidStreaming() throws IOException {
+    return OkResponses.decode(response(usernameToUuidBody), UsernameJsonDecoders::decodeUsernameToUuid);
+  }
+
+  @Benchmark
+  public UuidToProfileAndSkinCapeResponse.Textures profileTree() throws IOException {
+    JsonObject jsonObjectResponse = OkResponses.responseToJson(response(profileBody)).getAsJsonObject();
+    ImmutableTextures.Builder builder = ImmutableTextures.builder().slimModel(false);
+    if (jsonObjectResponse.has("properties")) {
+      JsonObject jsonObject = JsonParser.parseString(new String(
+          Base64.getDecoder().decode(jsonObjectResponse.getAsJsonArray("properties")
+              .get(0)
+              .getAsJsonObject()
+              .get("value")
+              .getAsString())))
+          .getAsJsonObject();
+      if (jsonObject.has("textures")) {
+        JsonObject texturesJsonObject = jsonObject.get("textures").getAsJsonObject();
+        if (texturesJsonObject.has("SKIN")) {
+          builder.skinUrl(texturesJsonObject.get("SKIN").getAsJsonObject().get("url").getAsString());
+        }
+        if (texturesJsonObject.has("CAPE")) {
+          builder.capeUrl(texturesJsonObject.get("CAPE").getAsJsonObject().get("url").getAsString());
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public UuidToProfileAndSkinCapeResponse profileStreaming() throws IOException {
+    return OkResponses.decode(response(profileBody), UsernameJsonDecoders::decodeUuidToProfileAndSkinCape);
+  }
+
+  @Benchmark
+  public UuidToProfileAndSkinCapeResponse.Textures profileStreamingWithTextures() throws IOException {
+    return OkResponses.decode(response(profileBody), UsernameJsonDecoders::decodeUuidToProfileAndSkinCape)
+        .textures();
+  }
+
+  private static Response response(byte[] body) {
+    return new Response.Builder()
+        .request(REQUEST)
+        .protocol(Protocol.HTTP_1_1)
+        .code(200)
+        .message("OK")
+        .body(ResponseBody.create(body, JSON_MEDIA_TYPE))
+        .build();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.ResponseFutureCache;
+import io.github.gonalez.zenbo.internal.DefaultResponseCache;
+import io.github.gonalez.zenbo.testing.MockMojangServer;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidResponse;
+import io.github.gonalez.zenbo.username.UsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.UsernameToUuidResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link ResponseFutureCache} implementations under contention, with several threads looking
+ * up and putting futures for a shared set of requests.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ResponseCacheContentionBenchmark {
+  private static final int REQUESTS = 4096;
+
+  @Param({"default", "bounded"})
+  public String cacheType;
+
+  /** One of every {@code putRatio} operations is a put, the others are gets. */
+  @Param({"8"})
+  public int putRatio;
+
+  private final UsernameToUuidRequest[] requests = new UsernameToUuidRequest[REQUESTS];
+  private final ListenableFuture<UsernameToUuidResponse> response = Futures.immediateFuture(
+      ImmutableUsernameToUuidResponse.builder()
+          .uuid(MockMojangServer.uuidOf("Notch"))
+          .build());
+
+  private ResponseFutureCache cache;
+
+  @Setup
+  public void setUp() {
+    cache = cacheType.equals("bounded")
+        ? ResponseFutureCache.newBuilder().maximumSize(REQUESTS / 2).build()
+        : new DefaultResponseCache();
+    for (int i = 0; i < REQUESTS; i++) {
+      requests[i] = ImmutableUsernameToUuidRequest.builder()
+          .username("player" + i)
+          .build();
+      if (i % 2 == 0) {
+        cache.put(requests[i], response);
+      }
+    }
+  }
+
+  @Benchmark
+  public Object getOrPut() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    UsernameToUuidRequest request = requests[random.nextInt(REQUESTS)];
+    if (random.nextInt(putRatio) == 0) {
+      return cache.put(request, response);
+    }
+    return cache.get(request);
+  }
+}
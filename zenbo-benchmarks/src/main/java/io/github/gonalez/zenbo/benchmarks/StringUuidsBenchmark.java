@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import io.github.gonalez.zenbo.username.StringUuids;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing the uuids returned by the Mojang APIs.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUuidsBenchmark {
+  private final String undashedUuid = "069a79f444e94726a5befca90e38aaf5";
+  private final String dashedUuid = "069a79f4-44e9-4726-a5be-fca90e38aaf5";
+
+  @Benchmark
+  public UUID uuidFromUndashedString() {
+    return StringUuids.uuidFromString(undashedUuid);
+  }
+
+  @Benchmark
+  public UUID uuidFromDashedString() {
+    return StringUuids.uuidFromString(dashedUuid);
+  }
+
+  @Benchmark
+  public UUID jdkUuidFromDashedString() {
+    return UUID.fromString(dashedUuid);
+  }
+}
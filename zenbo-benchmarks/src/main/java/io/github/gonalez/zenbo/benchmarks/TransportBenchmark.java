@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.github.gonalez.zenbo.HttpTransport;
+import io.github.gonalez.zenbo.testing.MockMojangServer;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.MojangEndpoints;
+import io.github.gonalez.zenbo.username.UsernameApi;
+import io.github.gonalez.zenbo.username.UsernameToUuidResponse;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link HttpTransport}s by the time a burst of lookups takes against a local server, which
+ * is reached through the configured {@link MojangEndpoints} rather than by rewriting the urls.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransportBenchmark {
+  @Param({"okhttp", "jdk"})
+  public String transport;
+
+  @Param({"200"})
+  public int concurrentLookups;
+
+  @Param({"10"})
+  public long latencyMillis;
+
+  private MockMojangServer server;
+  private OkHttpClient okHttpClient;
+  private UsernameApi usernameApi;
+
+  @Setup
+  public void setUp() throws Exception {
+    server = new MockMojangServer(latencyMillis);
+    HttpTransport httpTransport;
+    if (transport.equals("okhttp")) {
+      Dispatcher dispatcher = new Dispatcher();
+      dispatcher.setMaxRequests(concurrentLookups);
+      dispatcher.setMaxRequestsPerHost(concurrentLookups);
+      okHttpClient = new OkHttpClient.Builder()
+          .dispatcher(dispatcher)
+          .build();
+      httpTransport = HttpTransport.async(okHttpClient);
+    } else {
+      httpTransport = HttpTransport.jdk(HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .build());
+    }
+    usernameApi = UsernameApi.newBuilder()
+        .transport(httpTransport)
+        .endpoints(MojangEndpoints.of(server.baseUrl()))
+        .executor(MoreExecutors.directExecutor())
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    if (okHttpClient != null) {
+      okHttpClient.dispatcher().executorService().shutdown();
+      okHttpClient.connectionPool().evictAll();
+    }
+    server.close();
+  }
+
+  @Benchmark
+  public List<UsernameToUuidResponse> burst() throws Exception {
+    List<ListenableFuture<UsernameToUuidResponse>> futures = new ArrayList<>(concurrentLookups);
+    for (int i = 0; i < concurrentLookups; i++) {
+      futures.add(usernameApi.usernameToUuid(
+          ImmutableUsernameToUuidRequest.builder()
+              .username("player" + i)
+              .build()));
+    }
+    return Futures.allAsList(futures).get();
+  }
+}
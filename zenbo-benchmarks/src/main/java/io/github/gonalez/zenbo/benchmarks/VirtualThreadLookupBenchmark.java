@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.benchmarks;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.internal.VirtualThreads;
+import io.github.gonalez.zenbo.testing.MockMojangServer;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.UsernameApi;
+import io.github.gonalez.zenbo.username.UsernameToUuidResponse;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running blocking lookups on virtual threads against a fixed thread pool, when many lookups
+ * are in flight at once such as during a join storm. On Java versions without virtual threads both
+ * modes run on the fixed thread pool.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadLookupBenchmark {
+  @Param({"fixed", "virtual"})
+  public String mode;
+
+  @Param({"1000", "10000"})
+  public int concurrentLookups;
+
+  @Param({"50"})
+  public long latencyMillis;
+
+  @Param({"64"})
+  public int fixedPoolSize;
+
+  private MockMojangServer server;
+  private ExecutorService fixedPool;
+  private UsernameApi usernameApi;
+
+  @Setup
+  public void setUp() throws Exception {
+    if (mode.equals("virtual") && !VirtualThreads.isAvailable()) {
+      System.err.println("Virtual threads are not available, falling back to the fixed thread pool");
+    }
+    server = new MockMojangServer(latencyMillis);
+    fixedPool = Executors.newFixedThreadPool(fixedPoolSize);
+    OkHttpClient httpClient = server.httpClientBuilder().build();
+    usernameApi = UsernameApi.newBuilder()
+        .httpClient(httpClient)
+        .executor(fixedPool)
+        .useVirtualThreads(mode.equals("virtual"))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    fixedPool.shutdownNow();
+    server.close();
+  }
+
+  @Benchmark
+  public List<UsernameToUuidResponse> concurrentLookups() throws Exception {
+    List<ListenableFuture<UsernameToUuidResponse>> futures = new ArrayList<>(concurrentLookups);
+    for (int i = 0; i < concurrentLookups; i++) {
+      futures.add(usernameApi.usernameToUuid(
+          ImmutableUsernameToUuidRequest.builder()
+              .username("player" + i)
+              .build()));
+    }
+    return Futures.allAsList(futures).get();
+  }
+}
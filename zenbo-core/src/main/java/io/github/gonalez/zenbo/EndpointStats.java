@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Metrics of the lookups of a type of request, recorded by an {@link InMemoryInstrumentation}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface EndpointStats {
+  /** The distribution of a duration, in nanoseconds. */
+  @Value.Immutable
+  interface Distribution {
+    /** @return the number of recorded values. */
+    long count();
+
+    /** @return the median of the recorded values. */
+    long p50();
+
+    /** @return the 90th percentile of the recorded values. */
+    long p90();
+
+    /** @return the 99th percentile of the recorded values. */
+    long p99();
+
+    /** @return the highest recorded value. */
+    long max();
+  }
+
+  /** @return the time over which the metrics were recorded. */
+  Duration elapsed();
+
+  /** @return the number of requests sent through the transport. */
+  long requestCount();
+
+  /** @return the number of requests sent that did not complete yet. */
+  long inFlightCount();
+
+  /** @return the number of requests served from the cache. */
+  long cacheHitCount();
+
+  /** @return the number of requests not found in the cache. */
+  long cacheMissCount();
+
+  /** @return the number of requests that joined a lookup already in flight. */
+  long coalescedCount();
+
+  /** @return the total number of response body bytes read. */
+  long bytesRead();
+
+  /** @return the number of failed requests by response status code, {@code -1} if none was received. */
+  Map<Integer, Long> failureCountByStatusCode();
+
+  /** @return the distribution of the time from sending the requests to decoding their responses. */
+  Distribution latency();
+
+  /** @return the distribution of the time spent reading and decoding the response bodies. */
+  Distribution parseTime();
+
+  /** @return the number of requests sent per second over the {@link #elapsed()} time. */
+  default double requestRate() {
+    long elapsedNanos = elapsed().toNanos();
+    return elapsedNanos == 0 ? 0 : requestCount() * 1e9 / elapsedNanos;
+  }
+
+  /** @return the ratio of requests served from the cache, or {@code 1.0} if there were none. */
+  default double cacheHitRate() {
+    long lookupCount = cacheHitCount() + cacheMissCount();
+    return lookupCount == 0 ? 1.0 : (double) cacheHitCount() / lookupCount;
+  }
+
+  /** @return the total number of failed requests. */
+  default long failureCount() {
+    return failureCountByStatusCode().values().stream().mapToLong(Long::longValue).sum();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+
+/**
+ * The connection settings of the http client used for a host by a {@link ZenboClient}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface HostOptions {
+  /** @return the default options, suited to the Mojang API hosts. */
+  static HostOptions defaults() {
+    return ImmutableHostOptions.builder().build();
+  }
+
+  /**
+   * @return the maximum number of requests sent to the host at the same time, the rest are queued by the
+   *     http client. OkHttp allows only 5 by default, which queues most lookups of a join storm.
+   */
+  @Value.Default
+  default int maxConcurrentRequests() {
+    return 64;
+  }
+
+  /** @return the maximum number of idle connections kept alive to the host. */
+  @Value.Default
+  default int maxIdleConnections() {
+    return 16;
+  }
+
+  /** @return how long an idle connection is kept alive before it is closed. */
+  @Value.Default
+  default Duration keepAlive() {
+    return Duration.ofMinutes(2);
+  }
+
+  /** @return the timeout to connect to the host. */
+  @Value.Default
+  default Duration connectTimeout() {
+    return Duration.ofSeconds(5);
+  }
+
+  /** @return the timeout of each read of a response, between its bytes. */
+  @Value.Default
+  default Duration readTimeout() {
+    return Duration.ofSeconds(10);
+  }
+
+  /** @return the timeout of a whole call, from sending the request to reading its response. */
+  @Value.Default
+  default Duration callTimeout() {
+    return Duration.ofSeconds(30);
+  }
+
+  /**
+   * @return whether HTTP/2 is preferred, multiplexing the requests over a single connection when the host
+   *     supports it. Otherwise only HTTP/1.1 is used.
+   */
+  @Value.Default
+  default boolean preferHttp2() {
+    return true;
+  }
+
+  /**
+   * @return the maximum size of a response body in bytes, reading past it fails the response. The Mojang
+   *     API responses are a few kilobytes at most.
+   */
+  @Value.Default
+  default long maxResponseBodyBytes() {
+    return 1024 * 1024;
+  }
+
+  @Value.Check
+  default void check() {
+    checkState(maxConcurrentRequests() > 0, "maxConcurrentRequests must be positive");
+    checkState(maxIdleConnections() >= 0, "maxIdleConnections must not be negative");
+    checkState(maxResponseBodyBytes() > 0, "maxResponseBodyBytes must be positive");
+  }
+}
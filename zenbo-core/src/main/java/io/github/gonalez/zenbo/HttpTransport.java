@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.internal.JdkHttpTransport;
+import io.github.gonalez.zenbo.internal.OkHttpTransport;
+import okhttp3.OkHttpClient;
+
+import java.net.http.HttpClient;
+
+/**
+ * Sends the HTTP requests of the APIs, decoupling the request logic from the HTTP client in use.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@FunctionalInterface
+public interface HttpTransport {
+  /**
+   * Returns a transport that executes the calls synchronously on the calling thread, blocking it for
+   * the whole network round trip.
+   */
+  static HttpTransport blocking(OkHttpClient httpClient) {
+    return new OkHttpTransport(httpClient, false);
+  }
+
+  /**
+   * Returns a transport that enqueues the calls in the OkHttp dispatcher and completes the futures
+   * from its callbacks, so no thread of the caller is held while waiting for the response.
+   */
+  static HttpTransport async(OkHttpClient httpClient) {
+    return new OkHttpTransport(httpClient, true);
+  }
+
+  /**
+   * Returns a transport that sends the calls with the http client of the JDK, completing the futures
+   * asynchronously like {@link #async(OkHttpClient)}.
+   */
+  static HttpTransport jdk(HttpClient httpClient) {
+    return new JdkHttpTransport(httpClient);
+  }
+
+  /**
+   * Sends the given request. The returned future completes with the response once its headers are
+   * received, the caller is responsible for closing it.
+   */
+  ListenableFuture<TransportResponse> execute(TransportRequest request);
+}
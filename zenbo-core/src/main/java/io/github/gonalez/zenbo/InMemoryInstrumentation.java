@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import java.util.Map;
+
+/**
+ * An {@link Instrumentation} that aggregates the events in memory, so that the metrics of each endpoint
+ * can be read at any time.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see Instrumentation#inMemory()
+ */
+public interface InMemoryInstrumentation extends Instrumentation {
+  /** @return a snapshot of the metrics recorded for the given type of request. */
+  EndpointStats stats(Class<?> requestType);
+
+  /** @return a snapshot of the metrics recorded for every type of request seen so far. */
+  Map<Class<?>, EndpointStats> stats();
+
+  /** Discards all the recorded metrics. */
+  void reset();
+}
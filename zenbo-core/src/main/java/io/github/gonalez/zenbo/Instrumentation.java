@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import io.github.gonalez.zenbo.internal.DefaultInMemoryInstrumentation;
+import io.github.gonalez.zenbo.internal.NoopInstrumentation;
+
+/**
+ * Receives events about the lookups performed by an API, to record metrics or traces of them. Lookups
+ * are identified by the {@link LookupKey#requestType() type} of their requests. All methods do nothing by
+ * default, and are called from the threads that perform the lookups so they should return quickly.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface Instrumentation {
+  /** @return an instrumentation that ignores all the events. */
+  static Instrumentation noop() {
+    return NoopInstrumentation.INSTANCE;
+  }
+
+  /** @return a new instrumentation that aggregates the events in memory. */
+  static InMemoryInstrumentation inMemory() {
+    return new DefaultInMemoryInstrumentation();
+  }
+
+  /**
+   * @return {@code false} if this instrumentation ignores all the events, in which case the callers may
+   *     skip measuring them.
+   */
+  default boolean isEnabled() {
+    return true;
+  }
+
+  /** Called when a request is served from the cache. */
+  default void onCacheHit(Class<?> requestType) {}
+
+  /** Called when a request is not found in the cache, or the cache is ignored. */
+  default void onCacheMiss(Class<?> requestType) {}
+
+  /** Called when a request joins a lookup for the same key that is already in flight. */
+  default void onCoalesced(Class<?> requestType) {}
+
+  /** Called when a request is sent through the transport. */
+  default void onRequestStarted(Class<?> requestType) {}
+
+  /**
+   * Called when a response was received and decoded.
+   *
+   * @param latencyNanos the time since the request was sent until the response was decoded.
+   * @param bytesRead the number of bytes of the response body that were read.
+   * @param parseNanos the time spent reading and decoding the response body.
+   */
+  default void onRequestSucceeded(
+      Class<?> requestType, int statusCode, long latencyNanos, long bytesRead, long parseNanos) {}
+
+  /**
+   * Called when a request failed.
+   *
+   * @param statusCode the status code of the response, or {@code -1} if no response was received.
+   * @param latencyNanos the time since the request was sent until it failed.
+   */
+  default void onRequestFailed(Class<?> requestType, int statusCode, long latencyNanos) {}
+}
+
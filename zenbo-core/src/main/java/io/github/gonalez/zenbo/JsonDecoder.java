@@ -0,0 +1,32 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * Decodes a value straight from a stream of json tokens, without building the json tree.
+ *
+ * @param <T> the type of the decoded value.
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@FunctionalInterface
+public interface JsonDecoder<T> {
+  /** @return the value decoded from the given reader. */
+  T decode(JsonReader reader) throws IOException;
+}
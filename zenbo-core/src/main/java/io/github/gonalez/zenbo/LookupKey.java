@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import org.immutables.value.Value;
+
+/**
+ * Identifies what a {@link Request} looks up, regardless of its listener or options, so that requests
+ * for the same lookup share the same key.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see Request#lookupKey()
+ */
+@Value.Immutable
+public interface LookupKey {
+  /** @return a new key for the given type of request and normalized lookup value. */
+  static LookupKey of(Class<?> requestType, Object value) {
+    return ImmutableLookupKey.of(requestType, value);
+  }
+
+  /** @return the type of the request being looked up. */
+  @Value.Parameter
+  Class<?> requestType();
+
+  /** @return the value being looked up, normalized so that equal lookups have equal values. */
+  @Value.Parameter
+  Object value();
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.immutables.value.Value;
+
+import java.util.Optional;
+
+/**
+ * Represents the result of the lookup of a single key of a stream of lookups, either its value or the
+ * failure of the lookup.
+ *
+ * @param <K> the type of the keys looked up.
+ * @param <V> the type of the values of the keys.
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface LookupResult<K, V> {
+  /** @return a new successful result of the given key. */
+  static <K, V> LookupResult<K, V> success(K key, V value) {
+    return ImmutableLookupResult.<K, V>builder()
+        .key(key)
+        .value(value)
+        .build();
+  }
+
+  /** @return a new failed result of the given key. */
+  static <K, V> LookupResult<K, V> failure(K key, Throwable failure) {
+    return ImmutableLookupResult.<K, V>builder()
+        .key(key)
+        .failure(failure)
+        .build();
+  }
+
+  /** @return the key that was looked up. */
+  K key();
+
+  /** @return the value of the key, if the lookup succeeded. */
+  Optional<V> value();
+
+  /** @return the failure of the lookup, if it failed. */
+  Optional<Throwable> failure();
+
+  /** @return {@code true} if the lookup succeeded. */
+  default boolean isSuccessful() {
+    return value().isPresent();
+  }
+
+  @Value.Check
+  default void check() {
+    checkState(value().isPresent() != failure().isPresent(), "exactly one of value and failure must be set");
+  }
+}
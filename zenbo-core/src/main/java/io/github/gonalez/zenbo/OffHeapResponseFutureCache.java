@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import com.google.common.base.Ticker;
+import io.github.gonalez.zenbo.internal.DefaultOffHeapResponseCacheBuilder;
+
+import java.time.Duration;
+
+/**
+ * A {@link ResponseFutureCache} keeping a small on-heap tier of recently used futures, backed by an
+ * off-heap tier that stores the successful responses encoded in a direct buffer. Responses looked up from
+ * the off-heap tier are decoded and promoted to the on-heap one, so large numbers of responses can be kept
+ * without growing the heap the garbage collector has to trace.
+ *
+ * <p>The off-heap tier is a ring, once full the oldest responses are overwritten by the new ones. Responses
+ * that expire before are no longer served from either tier.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface OffHeapResponseFutureCache extends ResponseFutureCache {
+  /** @return a new {@link OffHeapResponseFutureCache} builder. */
+  static Builder newBuilder() {
+    return new DefaultOffHeapResponseCacheBuilder();
+  }
+
+  /** Builder to create {@link OffHeapResponseFutureCache}s. */
+  interface Builder {
+    /** Sets the maximum number of futures kept on-heap, 10,000 by default. */
+    Builder onHeapMaximumSize(long onHeapMaximumSize);
+
+    /** Sets the size in bytes of the off-heap tier, 64 MiB by default. */
+    Builder offHeapCapacity(int offHeapCapacity);
+
+    /** Sets how long futures are kept after being put, by default they are kept until evicted. */
+    Builder expireAfterWrite(Duration duration);
+
+    /** Sets the time source used to expire futures, mostly useful for testing. */
+    Builder ticker(Ticker ticker);
+
+    /** Stores off-heap the responses to requests of the given type, encoded with the given codec. */
+    <T extends Response> Builder codec(Class<? extends Request<T>> requestType, ResponseCodec<T> codec);
+
+    /** @return a new {@link OffHeapResponseFutureCache} from this builder. */
+    OffHeapResponseFutureCache build();
+  }
+}
@@ -17,6 +17,8 @@ package io.github.gonalez.zenbo;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import io.github.gonalez.zenbo.internal.Utf8Reader;
 import okhttp3.Response;
 
 import java.io.IOException;
@@ -32,4 +34,11 @@ public final class OkResponses {
   public static JsonElement responseToJson(Response response) throws IOException {
     return JsonParser.parseString(response.body().string());
   }
+
+  /** Decodes the body of the given response while it is read, without materializing it first. */
+  public static <T> T decode(Response response, JsonDecoder<T> decoder) throws IOException {
+    try (JsonReader reader = new JsonReader(new Utf8Reader(response.body().byteStream()))) {
+      return decoder.decode(reader);
+    }
+  }
 }
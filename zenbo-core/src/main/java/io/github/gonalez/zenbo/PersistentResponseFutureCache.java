@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import io.github.gonalez.zenbo.internal.DefaultPersistentResponseCacheBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A {@link ResponseFutureCache} that also stores the successful responses in a local file, so they
+ * survive restarts. Lookups missing from the memory cache are served from the file before going to the
+ * network, while writes to the file happen in the background.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface PersistentResponseFutureCache extends ResponseFutureCache, Closeable {
+  /** @return a new {@link PersistentResponseFutureCache} builder. */
+  static Builder newBuilder() {
+    return new DefaultPersistentResponseCacheBuilder();
+  }
+
+  /** Writes the pending responses to the file and closes it. */
+  @Override
+  void close() throws IOException;
+
+  /** Builder to create {@link PersistentResponseFutureCache}s. */
+  interface Builder {
+    /** Sets the file in which the responses are stored. */
+    Builder file(Path file);
+
+    /** Sets the cache in front of the file, if not set an unbounded cache is used. */
+    Builder memoryCache(ResponseFutureCache memoryCache);
+
+    /** Stores the responses to requests of the given type, encoded with the given codec. */
+    <T extends Response> Builder codec(Class<? extends Request<T>> requestType, ResponseCodec<T> codec);
+
+    /** Sets how long stored responses are served after being written, by default they do not expire. */
+    Builder expireAfterWrite(Duration duration);
+
+    /** Sets how often the written responses are synced to the storage device. */
+    Builder syncInterval(Duration syncInterval);
+
+    /** @return a new {@link PersistentResponseFutureCache} from this builder, loading the existing file. */
+    PersistentResponseFutureCache build() throws IOException;
+  }
+}
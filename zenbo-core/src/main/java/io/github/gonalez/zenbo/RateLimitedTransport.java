@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import io.github.gonalez.zenbo.internal.DefaultRateLimitedTransportBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link HttpTransport} which sends the requests of another transport within the limits of a
+ * {@link RateLimiter} per host, queueing the requests exceeding them. Responses matching the
+ * {@link Builder#retryableResponseCodes(IntPredicate) retryable response codes}, by default
+ * {@code 429 Too Many Requests} and the server errors, are retried with exponential backoff, honoring the
+ * {@code Retry-After} header when present. Once the retries are exhausted the last response is returned.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface RateLimitedTransport extends HttpTransport {
+  /** @return a new {@link RateLimitedTransport} builder. */
+  static Builder newBuilder() {
+    return new DefaultRateLimitedTransportBuilder();
+  }
+
+  /** Builder to create {@link RateLimitedTransport}s. */
+  interface Builder {
+    /** Sets the transport used to send the requests. */
+    Builder transport(HttpTransport transport);
+
+    /** Sets the rate limiter of the given host. */
+    Builder rateLimiter(String host, RateLimiter rateLimiter);
+
+    /**
+     * Sets the supplier of the rate limiters for the hosts without one, called once per host. If not set each
+     * host is allowed a burst of 600 requests, refilled over 10 minutes.
+     */
+    Builder defaultRateLimiter(Supplier<? extends RateLimiter> rateLimiterSupplier);
+
+    /** Sets the maximum number of times a request is retried, 3 by default. */
+    Builder maxRetries(int maxRetries);
+
+    /**
+     * Sets the delay before the first retry, which is doubled on each following retry up to the maximum
+     * backoff. Defaults to 500 milliseconds and 30 seconds.
+     */
+    Builder backoff(Duration initialBackoff, Duration maxBackoff);
+
+    /**
+     * Sets which response codes are retried. By default, {@code 429 Too Many Requests} and the server errors
+     * are retried.
+     */
+    Builder retryableResponseCodes(IntPredicate retryable);
+
+    /**
+     * Sets the scheduler waiting for the delays of the delayed requests, which hands them off to the
+     * {@link #executor(Executor) executor} once they elapse. If not set a single daemon thread is used.
+     */
+    Builder scheduler(ScheduledExecutorService scheduler);
+
+    /**
+     * Sets the executor the delayed requests are sent from. With a blocking transport each send holds a
+     * thread of it for the whole round trip, so it must allow as many threads as requests are expected to
+     * be sent at once after a pause. If not set a cached pool of daemon threads is used.
+     */
+    Builder executor(Executor executor);
+
+    /** @return a new {@link RateLimitedTransport} from this builder. */
+    RateLimitedTransport build();
+  }
+}
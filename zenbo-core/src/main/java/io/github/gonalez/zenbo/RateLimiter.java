@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import io.github.gonalez.zenbo.internal.TokenBucketRateLimiter;
+
+import java.time.Duration;
+
+/**
+ * Limits the rate at which requests are sent to a host.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see RateLimitedTransport
+ */
+public interface RateLimiter {
+  /**
+   * Returns a token bucket rate limiter holding up to {@code capacity} permits, which are refilled at a
+   * steady rate of {@code capacity} permits per {@code refillPeriod}. The bucket starts full.
+   */
+  static RateLimiter tokenBucket(int capacity, Duration refillPeriod) {
+    return new TokenBucketRateLimiter(capacity, refillPeriod);
+  }
+
+  /**
+   * Reserves a permit to send a request. Permits are granted in the order they are reserved, so when
+   * none is available the request is queued behind the earlier ones instead of failing.
+   *
+   * @return the time in nanoseconds to wait before sending the request, {@code 0} to send it right away.
+   */
+  long reserve();
+
+  /**
+   * Stops granting permits for the given duration, called when the host rejects a request for
+   * exceeding its limits.
+   */
+  void pause(Duration duration);
+}
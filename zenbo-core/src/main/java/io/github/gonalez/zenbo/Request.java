@@ -35,6 +35,14 @@ public interface Request<T extends Response> {
     void onFailure(Throwable throwable);
   }
 
+  /** The priority classes of the requests, see {@link RequestScheduler}. */
+  enum Priority {
+    /** Requests someone is waiting on, such as the lookups of the players joining. */
+    INTERACTIVE,
+    /** Requests nobody is waiting on, such as bulk jobs and prefetches. */
+    BACKGROUND,
+  }
+
   /** Options to be used not in the response but for (optional) extra logic in the code itself. */
   @Value.Immutable
   interface RequestOptions {
@@ -45,6 +53,21 @@ public interface Request<T extends Response> {
     default boolean ignoreCache() {
       return false;
     }
+
+    /** @return the priority with which the request is scheduled. */
+    @Value.Default
+    default Priority priority() {
+      return Priority.INTERACTIVE;
+    }
+  }
+
+  /**
+   * @return the key identifying what this request looks up, ignoring its listener and options. By default
+   *     the looked up value is the request itself, so only equal requests share a key; implementations
+   *     should override it to normalize what they look up.
+   */
+  default LookupKey lookupKey() {
+    return LookupKey.of(getClass(), this);
   }
 
   /** @return a {@code Optional} of the request listener. */
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces concurrent requests for the same {@link LookupKey}, so that only the first of them
+ * performs the lookup and the others share its future until it completes.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class RequestCoalescer {
+  private final ConcurrentHashMap<LookupKey, ListenableFuture<?>> inFlight = new ConcurrentHashMap<>();
+  private final Instrumentation instrumentation;
+
+  public RequestCoalescer() {
+    this(Instrumentation.noop());
+  }
+
+  /** Creates a coalescer that reports the coalesced requests to the given instrumentation. */
+  public RequestCoalescer(Instrumentation instrumentation) {
+    this.instrumentation = instrumentation;
+  }
+
+  /**
+   * Returns the future of the in-flight lookup for the given key, or calls the given supplier to start
+   * it if there is none. The returned future can be cancelled without affecting the other callers.
+   */
+  public <T extends Response> ListenableFuture<T> coalesce(
+      LookupKey key, Callable<ListenableFuture<T>> listenableFuture) {
+    SettableFuture<T> future = SettableFuture.create();
+    @SuppressWarnings("unchecked")
+    ListenableFuture<T> existing = (ListenableFuture<T>) inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      instrumentation.onCoalesced(key.requestType());
+      return Futures.nonCancellationPropagating(existing);
+    }
+    future.addListener(() -> inFlight.remove(key, future), directExecutor());
+    try {
+      future.setFuture(listenableFuture.call());
+    } catch (Throwable throwable) {
+      future.setException(throwable);
+    }
+    return Futures.nonCancellationPropagating(future);
+  }
+
+  /** @return the number of lookups currently in flight. */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import com.google.common.util.concurrent.AsyncCallable;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.Request.Priority;
+import io.github.gonalez.zenbo.internal.DefaultRequestSchedulerBuilder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Schedules the requests sent by the APIs by their {@link Priority}. Each priority has its own limit of
+ * concurrent requests and its own bounded queue, so background requests cannot delay the interactive ones
+ * and a backlog fails fast instead of growing without bound.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface RequestScheduler {
+  /** @return a new {@link RequestScheduler} builder. */
+  static Builder newBuilder() {
+    return new DefaultRequestSchedulerBuilder();
+  }
+
+  /**
+   * Runs the given task once fewer than the maximum number of requests of the given priority are running,
+   * queueing it meanwhile. The returned future fails with a {@link RejectedExecutionException} if the queue
+   * of the priority is full.
+   */
+  <T> ListenableFuture<T> schedule(Priority priority, AsyncCallable<T> task);
+
+  /** @return the number of requests of the given priority that are running. */
+  int runningCount(Priority priority);
+
+  /** @return the number of requests of the given priority waiting to run. */
+  int queuedCount(Priority priority);
+
+  /** Builder to create {@link RequestScheduler}s. */
+  interface Builder {
+    /**
+     * Sets the maximum number of requests of the given priority running at the same time, by default 64
+     * interactive and 4 background requests.
+     */
+    Builder maxConcurrentRequests(Priority priority, int maxConcurrentRequests);
+
+    /** Sets the maximum number of requests of the given priority waiting to run, by default 1024. */
+    Builder maxQueuedRequests(Priority priority, int maxQueuedRequests);
+
+    /** Sets the executor on which the queued requests are run, by default the thread completing another one. */
+    Builder executor(Executor executor);
+
+    /** @return a new {@link RequestScheduler} from this builder. */
+    RequestScheduler build();
+  }
+}
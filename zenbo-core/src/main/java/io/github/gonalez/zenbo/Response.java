@@ -22,4 +22,11 @@ package io.github.gonalez.zenbo;
  * @see Request
  */
 public interface Response {
+  /**
+   * @return whether this response can be kept in a cache. Responses holding transient failures, such as a
+   *     partial response, should not be cached so that they are looked up again.
+   */
+  default boolean isCacheable() {
+    return true;
+  }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes {@link Response}s in a compact binary form, so they can be stored outside of the heap.
+ *
+ * @param <T> the type of the encoded responses.
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface ResponseCodec<T extends Response> {
+  /** Writes the given response to the output. */
+  void encode(T response, DataOutput output) throws IOException;
+
+  /** @return the response read from the input. */
+  T decode(DataInput input) throws IOException;
+}
@@ -15,7 +15,11 @@
  */
 package io.github.gonalez.zenbo;
 
+import com.google.common.base.Ticker;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.internal.DefaultResponseFutureCacheBuilder;
+
+import java.time.Duration;
 
 /**
  * A cache of {@link ListenableFuture} for {@link Request}s.
@@ -23,9 +27,22 @@ import com.google.common.util.concurrent.ListenableFuture;
  * @author Gaston Gonzalez (Gonalez)
  */
 public interface ResponseFutureCache {
+  /** @return a new {@link ResponseFutureCache} builder. */
+  static Builder newBuilder() {
+    return new DefaultResponseFutureCacheBuilder();
+  }
+
   /** Puts in the cache the specified future for the given request. */
   <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future);
 
+  /**
+   * Puts in the cache the specified future for the given request, which was written the given time ago, such as
+   * a response loaded from a slower cache, so that it expires and becomes stale as if it was put back then.
+   */
+  default <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future, Duration age) {
+    return put(request, future);
+  }
+
   /** Gets the future in the cache for the given request. */
   <T extends Response> ListenableFuture<T> get(Request<T> request);
 
@@ -34,4 +51,67 @@ public interface ResponseFutureCache {
 
   /** @return {@code true} if a future is cached the given request. */
   <T extends Response> boolean contains(Request<T> request);
+
+  /**
+   * Returns whether the future cached for the given request is stale and should be refreshed, in which case the
+   * caller is responsible for looking up the request again and putting the refreshed future in the cache. Stale
+   * futures are still returned by {@link #get(Request)} until they expire, and only one caller is asked to refresh
+   * them in each refresh interval.
+   */
+  default <T extends Response> boolean claimRefresh(Request<T> request) {
+    return false;
+  }
+
+  /** @return the statistics of this cache, all zero if the cache does not record them. */
+  default ResponseFutureCacheStats stats() {
+    return ImmutableResponseFutureCacheStats.builder()
+        .hitCount(0)
+        .missCount(0)
+        .evictionCount(0)
+        .build();
+  }
+
+  /**
+   * Computes the weight of the cached responses. The futures weigh one until they succeed, when they are weighed
+   * again by the response they completed with, and the ones failed with a {@link ResponseNotFoundException} keep
+   * weighing one.
+   */
+  @FunctionalInterface
+  interface Weigher {
+    /** @return the weight of the given response cached for the given request, must be non-negative. */
+    int weigh(Request<?> request, Response response);
+  }
+
+  /** Builder to create bounded, thread-safe {@link ResponseFutureCache}s. */
+  interface Builder {
+    /** Sets the maximum number of futures the cache may contain. */
+    Builder maximumSize(long maximumSize);
+
+    /** Sets the maximum total weight of the futures the cache may contain. */
+    Builder maximumWeight(long maximumWeight, Weigher weigher);
+
+    /** Sets how long futures are kept after being put, for requests without a type specific duration. */
+    Builder expireAfterWrite(Duration duration);
+
+    /** Sets how long futures are kept after being put, for requests of the given type. */
+    Builder expireAfterWrite(Class<? extends Request<?>> requestType, Duration duration);
+
+    /**
+     * Sets how long after being put futures become stale, which are refreshed in the background on the next lookup
+     * while the stale response is served. Should be shorter than the duration they expire after.
+     */
+    Builder refreshAfterWrite(Duration duration);
+
+    /**
+     * Sets how long futures failed with a {@link ResponseNotFoundException} are kept after being put, if not set they
+     * are kept as long as the successful ones. Futures failed with any other exception are removed once they fail.
+     */
+    Builder expireNotFoundAfterWrite(Duration duration);
+
+    /** Sets the time source used to expire futures, mostly useful for testing. */
+    Builder ticker(Ticker ticker);
+
+    /** @return a new {@link ResponseFutureCache} from this builder. */
+    ResponseFutureCache build();
+  }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import org.immutables.value.Value;
+
+/**
+ * Statistics about the performance of a {@link ResponseFutureCache}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface ResponseFutureCacheStats {
+  /** @return the number of times a lookup returned a cached future. */
+  long hitCount();
+
+  /** @return the number of times a lookup found no cached future. */
+  long missCount();
+
+  /** @return the number of futures removed because of the size limits or their expiration. */
+  long evictionCount();
+
+  /** @return the ratio of lookups that returned a cached future, or {@code 1.0} if there were no lookups. */
+  default double hitRate() {
+    long requestCount = hitCount() + missCount();
+    return requestCount == 0 ? 1.0 : (double) hitCount() / requestCount;
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+/**
+ * Thrown when an API has no response for a request, e.g. when looking up a username that does not exist.
+ * Caches keep the futures failed with this exception as negative entries, so repeated lookups of the same
+ * request are answered without reaching the API.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class ResponseNotFoundException extends ResponseFailureException {
+  public ResponseNotFoundException() {
+    super();
+  }
+
+  public ResponseNotFoundException(String message) {
+    super(message);
+  }
+}
@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.*;
 
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 
 /**
@@ -49,24 +50,131 @@ public final class Responses {
     return future;
   }
 
+  /**
+   * Returns the future cached for the given request, or {@code null} if the cache has no response for it.
+   * Failed futures are considered cached.
+   */
+  public static <T extends Response> ListenableFuture<T> getCachedOrNull(
+      ResponseFutureCache cache, Request<T> request) {
+    ListenableFuture<T> future = cache.get(request);
+    if (future.isDone() && !future.isCancelled()) {
+      try {
+        if (Futures.getDone(future) == null) {
+          return null;
+        }
+      } catch (ExecutionException ignored) {
+        // A failed future is still a cached future.
+      }
+    }
+    return future;
+  }
+
+  /**
+   * Returns whether the given completed future should be kept in a cache, which is when it succeeded with a
+   * {@link Response#isCacheable() cacheable} response or failed with a {@link ResponseNotFoundException}.
+   */
+  public static boolean isCacheableResult(ListenableFuture<?> future) {
+    if (future.isCancelled()) {
+      return false;
+    }
+    try {
+      Object result = Futures.getDone(future);
+      return !(result instanceof Response) || ((Response) result).isCacheable();
+    } catch (ExecutionException e) {
+      return e.getCause() instanceof ResponseNotFoundException;
+    }
+  }
+
+  /**
+   * Returns the cached future for the given request if available, or else calls the given callable on the
+   * executor and caches its future. Unlike the other overloads, concurrent requests for the same lookup are
+   * not coalesced, as each call uses a coalescer of its own; pass a shared {@link RequestCoalescer} to
+   * {@link #buildCachingFutureForRequest(Request, ResponseFutureCache, RequestCoalescer, Executor, Callable)}
+   * for that.
+   */
   public static <T extends Response> ListenableFuture<T> buildCachingFutureForRequest(
       Request<T> request, ResponseFutureCache cache,
       Executor executor, Callable<ListenableFuture<T>> listenableFuture) {
-    return FluentFuture.from(cache.get(request))
-        .transformAsync(input -> {
-          Optional<Request.RequestOptions> optionsOptional = request.options();
-          if (input != null
-              && !(optionsOptional.isPresent()
-              && optionsOptional.get().ignoreCache())) {
-            return Futures.immediateFuture(input);
-          }
-          ListenableFuture<T> future = listenableFuture.call();
-          if (optionsOptional.isPresent()
-              && optionsOptional.get().cacheable()) {
-            cache.put(request, future);
-          }
-          addListenersIfPresent(future, request, executor);
-          return listenableFuture.call();
-        }, executor);
+    return buildCachingFutureForRequest(request, cache, new RequestCoalescer(), executor, listenableFuture);
+  }
+
+  /**
+   * Returns the cached future for the given request if available, or else the future of the lookup
+   * shared through the given coalescer by all the concurrent requests with the same {@link LookupKey}.
+   * A lookup calls the given callable once on the executor, and its future is the one cached, listened to
+   * and returned. Stale cached responses are returned right away while they are refreshed in the background,
+   * see {@link ResponseFutureCache#claimRefresh(Request)}.
+   */
+  public static <T extends Response> ListenableFuture<T> buildCachingFutureForRequest(
+      Request<T> request, ResponseFutureCache cache, RequestCoalescer coalescer,
+      Executor executor, Callable<ListenableFuture<T>> listenableFuture) {
+    return buildCachingFutureForRequest(
+        request, cache, coalescer, Instrumentation.noop(), executor, listenableFuture);
+  }
+
+  /**
+   * Same as {@link #buildCachingFutureForRequest(Request, ResponseFutureCache, RequestCoalescer, Executor,
+   * Callable)}, also reporting the cache hits and misses to the given instrumentation.
+   */
+  public static <T extends Response> ListenableFuture<T> buildCachingFutureForRequest(
+      Request<T> request, ResponseFutureCache cache, RequestCoalescer coalescer, Instrumentation instrumentation,
+      Executor executor, Callable<ListenableFuture<T>> listenableFuture) {
+    return buildCachingFutureForRequest(
+        request, cache, coalescer, instrumentation, executor, listenableFuture, () -> {});
+  }
+
+  /**
+   * Same as {@link #buildCachingFutureForRequest(Request, ResponseFutureCache, RequestCoalescer, Instrumentation,
+   * Executor, Callable)}, also running the given runnable right before this call starts the lookup whose future
+   * it returns. It is not run when the returned future is served from the cache or shared with a lookup already
+   * in flight, nor for the refreshes of stale cached responses.
+   */
+  public static <T extends Response> ListenableFuture<T> buildCachingFutureForRequest(
+      Request<T> request, ResponseFutureCache cache, RequestCoalescer coalescer, Instrumentation instrumentation,
+      Executor executor, Callable<ListenableFuture<T>> listenableFuture, Runnable onLookup) {
+    Optional<Request.RequestOptions> optionsOptional = request.options();
+    if (!(optionsOptional.isPresent() && optionsOptional.get().ignoreCache())) {
+      ListenableFuture<T> cached = getCachedOrNull(cache, request);
+      if (cached != null) {
+        instrumentation.onCacheHit(request.lookupKey().requestType());
+        if (!cached.isDone()) {
+          // Shared with the other callers, so cancelling it from this one must not cancel the lookup.
+          return addListenersIfPresent(Futures.nonCancellationPropagating(cached), request, executor);
+        }
+        if (cache.claimRefresh(request)) {
+          refresh(request, cache, coalescer, executor, listenableFuture);
+        }
+        return addListenersIfPresent(cached, request, executor);
+      }
+    }
+    instrumentation.onCacheMiss(request.lookupKey().requestType());
+    ListenableFuture<T> future = lookup(request, coalescer, executor, () -> {
+      onLookup.run();
+      return listenableFuture.call();
+    });
+    if (optionsOptional.isPresent()
+        && optionsOptional.get().cacheable()) {
+      cache.put(request, future);
+    }
+    return addListenersIfPresent(future, request, executor);
+  }
+
+  private static <T extends Response> ListenableFuture<T> lookup(
+      Request<T> request, RequestCoalescer coalescer,
+      Executor executor, Callable<ListenableFuture<T>> listenableFuture) {
+    return coalescer.coalesce(request.lookupKey(),
+        () -> Futures.submitAsync(listenableFuture::call, executor));
+  }
+
+  private static <T extends Response> void refresh(
+      Request<T> request, ResponseFutureCache cache, RequestCoalescer coalescer,
+      Executor executor, Callable<ListenableFuture<T>> listenableFuture) {
+    ListenableFuture<T> future = lookup(request, coalescer, executor, listenableFuture);
+    // The stale future is only replaced once the refresh completes, so it keeps being served meanwhile.
+    future.addListener(() -> {
+      if (isCacheableResult(future)) {
+        cache.put(request, future);
+      }
+    }, MoreExecutors.directExecutor());
   }
 }
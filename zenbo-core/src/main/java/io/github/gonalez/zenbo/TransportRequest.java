@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import org.immutables.value.Value;
+
+import java.util.Optional;
+
+/**
+ * Represents a HTTP request sent through a {@link HttpTransport}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface TransportRequest {
+  /** @return the url to send the request to. */
+  String url();
+
+  /** @return the json body to post, if empty the request is sent as a {@code GET}. */
+  Optional<String> jsonBody();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Represents a HTTP response received through a {@link HttpTransport}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface TransportResponse extends Closeable {
+  /** @return the HTTP status code of the response. */
+  int code();
+
+  /** @return the value of the given header, if present. */
+  Optional<String> header(String name);
+
+  /** @return the stream of the response body, which is closed along with this response. */
+  InputStream body();
+
+  /** @return {@code true} if the status code is in the range [200..300). */
+  default boolean isSuccessful() {
+    return code() >= 200 && code() < 300;
+  }
+
+  @Override
+  void close();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import io.github.gonalez.zenbo.internal.Utf8Reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Static methods to work with {@link TransportResponse}s.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class TransportResponses {
+  private TransportResponses() {}
+
+  public static JsonElement responseToJson(TransportResponse response) {
+    return JsonParser.parseReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+  }
+
+  /** Decodes the body of the given response while it is read, without materializing it first. */
+  public static <T> T decode(TransportResponse response, JsonDecoder<T> decoder) throws IOException {
+    return decode(response.body(), decoder);
+  }
+
+  /** Decodes the given response body while it is read, without materializing it first. */
+  public static <T> T decode(InputStream body, JsonDecoder<T> decoder) throws IOException {
+    try (JsonReader reader = new JsonReader(new Utf8Reader(body))) {
+      return decoder.decode(reader);
+    }
+  }
+}
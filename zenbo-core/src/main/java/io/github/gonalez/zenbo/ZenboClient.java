@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import io.github.gonalez.zenbo.internal.DefaultZenboClientBuilder;
+import okhttp3.OkHttpClient;
+
+import java.io.Closeable;
+
+/**
+ * Owns the http clients used to send the requests of the APIs, with one client tuned for each host so that
+ * the connections, concurrency limits and timeouts of a host do not affect the others.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public interface ZenboClient extends Closeable {
+  /** The host of the Mojang API. */
+  String API_HOST = "api.mojang.com";
+  /** The host of the Mojang session server. */
+  String SESSION_SERVER_HOST = "sessionserver.mojang.com";
+
+  /** @return a new {@link ZenboClient} builder. */
+  static Builder newBuilder() {
+    return new DefaultZenboClientBuilder();
+  }
+
+  /** @return the transport that sends each request with the http client of its host. */
+  HttpTransport transport();
+
+  /** Closes the idle connections and stops the threads of the http clients. */
+  @Override
+  void close();
+
+  /** Builder to create {@link ZenboClient}s. */
+  interface Builder {
+    /**
+     * Sets the client from which the clients of each host are derived, sharing its interceptors and other
+     * settings not covered by the {@link HostOptions}.
+     */
+    Builder baseHttpClient(OkHttpClient baseHttpClient);
+
+    /** Sets the options of the hosts without options of their own, by default {@link HostOptions#defaults()}. */
+    Builder defaultHostOptions(HostOptions hostOptions);
+
+    /** Sets the options of the given host. */
+    Builder hostOptions(String host, HostOptions hostOptions);
+
+    /**
+     * Sets whether the calls are enqueued in the http client instead of blocking the calling thread,
+     * by default {@code true}.
+     *
+     * @see HttpTransport#async(OkHttpClient)
+     */
+    Builder async(boolean async);
+
+    /** @return a new {@link ZenboClient} from this builder. */
+    ZenboClient build();
+  }
+}
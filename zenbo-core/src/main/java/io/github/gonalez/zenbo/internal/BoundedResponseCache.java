@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe {@link ResponseFutureCache} bounded by size or weight, which expires the futures
+ * after a duration that can be configured for each type of request. Futures failed with a
+ * {@link ResponseNotFoundException} are kept as negative entries with their own expiration, and
+ * the ones failed with any other exception are removed.
+ *
+ * <p>The futures are keyed by the {@link Request#lookupKey() lookup key} of the requests, so requests for
+ * the same lookup share the future regardless of their listener or options.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see ResponseFutureCache#newBuilder()
+ */
+public class BoundedResponseCache implements ResponseFutureCache {
+  private final Cache<LookupKey, Entry> cache;
+  private final ResponseFutureCache.Weigher weigher;
+  private final ImmutableMap<Class<?>, Long> expireAfterWriteNanos;
+  private final long defaultExpireAfterWriteNanos;
+  private final long refreshAfterWriteNanos;
+  private final long expireNotFoundAfterWriteNanos;
+  private final Ticker ticker;
+
+  /** The resolved expiration of each concrete request class, to avoid walking the configured types on every put. */
+  private final Map<Class<?>, Long> expireAfterWriteNanosByClass = new ConcurrentHashMap<>();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  BoundedResponseCache(DefaultResponseFutureCacheBuilder builder) {
+    this.expireAfterWriteNanos = builder.expireAfterWriteNanos();
+    this.defaultExpireAfterWriteNanos = builder.defaultExpireAfterWriteNanos;
+    this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+    this.expireNotFoundAfterWriteNanos = builder.expireNotFoundAfterWriteNanos;
+    this.ticker = builder.ticker;
+    this.weigher = builder.weigher;
+
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+    if (builder.maximumSize != DefaultResponseFutureCacheBuilder.UNSET) {
+      cacheBuilder.maximumSize(builder.maximumSize);
+    } else if (builder.maximumWeight != DefaultResponseFutureCacheBuilder.UNSET) {
+      cacheBuilder.maximumWeight(builder.maximumWeight)
+          .weigher((LookupKey key, Entry entry) -> entry.weight);
+    }
+    this.cache = cacheBuilder
+        .removalListener(notification -> {
+          if (notification.wasEvicted()) {
+            evictionCount.increment();
+          }
+        })
+        .build();
+  }
+
+  @Override
+  public <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future) {
+    return put(request, future, Duration.ZERO);
+  }
+
+  @Override
+  public <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future, Duration age) {
+    long now = ticker.read() - age.toNanos();
+    Entry entry = new Entry(future, 1,
+        deadline(now, expireAfterWriteNanos(request)),
+        deadline(now, refreshAfterWriteNanos));
+    LookupKey key = request.lookupKey();
+    cache.put(key, entry);
+    future.addListener(() -> onComplete(request, key, entry, now), directExecutor());
+    return future;
+  }
+
+  @Override
+  public <T extends Response> ListenableFuture<T> get(Request<T> request) {
+    Entry entry = getIfFresh(request.lookupKey());
+    if (entry == null) {
+      missCount.increment();
+      return Futures.immediateFuture(null);
+    }
+    hitCount.increment();
+    @SuppressWarnings("unchecked")
+    ListenableFuture<T> future = (ListenableFuture<T>) entry.future;
+    return future;
+  }
+
+  @Override
+  public <T extends Response> boolean claimRefresh(Request<T> request) {
+    Entry entry = getIfFresh(request.lookupKey());
+    if (entry == null || !entry.future.isDone()) {
+      return false;
+    }
+    long refreshAt = entry.refreshAt.get();
+    if (refreshAt == Long.MAX_VALUE) {
+      return false;
+    }
+    long now = ticker.read();
+    // Claiming pushes the next refresh one interval ahead, so a failed refresh is retried after it.
+    return now - refreshAt >= 0 && entry.refreshAt.compareAndSet(refreshAt, deadline(now, refreshAfterWriteNanos));
+  }
+
+  @Override
+  public <T extends Response> void remove(Request<T> request) {
+    cache.invalidate(request.lookupKey());
+  }
+
+  @Override
+  public <T extends Response> boolean contains(Request<T> request) {
+    return getIfFresh(request.lookupKey()) != null;
+  }
+
+  @Override
+  public ResponseFutureCacheStats stats() {
+    return ImmutableResponseFutureCacheStats.builder()
+        .hitCount(hitCount.sum())
+        .missCount(missCount.sum())
+        .evictionCount(evictionCount.sum())
+        .build();
+  }
+
+  private Entry getIfFresh(LookupKey key) {
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAt != Long.MAX_VALUE && ticker.read() - entry.expiresAt >= 0) {
+      if (cache.asMap().remove(key, entry)) {
+        evictionCount.increment();
+      }
+      return null;
+    }
+    return entry;
+  }
+
+  private void onComplete(Request<?> request, LookupKey key, Entry entry, long writtenAt) {
+    if (!Responses.isCacheableResult(entry.future)) {
+      cache.asMap().remove(key, entry);
+      return;
+    }
+    try {
+      Object response = Futures.getDone(entry.future);
+      if (weigher != null && response != null) {
+        // Put again, as the cache only weighs the entries when they are put.
+        cache.asMap().replace(key, entry, entry.withWeight(weigher.weigh(request, (Response) response)));
+      }
+    } catch (ExecutionException e) {
+      // A negative entry, which is not refreshed and expires after its own duration.
+      entry.expiresAt = Math.min(entry.expiresAt, deadline(writtenAt, expireNotFoundAfterWriteNanos));
+      entry.refreshAt.set(Long.MAX_VALUE);
+    }
+  }
+
+  private long expireAfterWriteNanos(Request<?> request) {
+    return expireAfterWriteNanosByClass.computeIfAbsent(request.getClass(), requestClass -> {
+      for (Map.Entry<Class<?>, Long> entry : expireAfterWriteNanos.entrySet()) {
+        if (entry.getKey().isAssignableFrom(requestClass)) {
+          return entry.getValue();
+        }
+      }
+      return defaultExpireAfterWriteNanos;
+    });
+  }
+
+  private static long deadline(long now, long durationNanos) {
+    return durationNanos == Long.MAX_VALUE ? Long.MAX_VALUE : now + durationNanos;
+  }
+
+  private static final class Entry {
+    final ListenableFuture<?> future;
+    final int weight;
+    final AtomicLong refreshAt;
+    volatile long expiresAt;
+
+    Entry(ListenableFuture<?> future, int weight, long expiresAt, long refreshAt) {
+      this(future, weight, expiresAt, new AtomicLong(refreshAt));
+    }
+
+    private Entry(ListenableFuture<?> future, int weight, long expiresAt, AtomicLong refreshAt) {
+      this.future = future;
+      this.weight = weight;
+      this.expiresAt = expiresAt;
+      this.refreshAt = refreshAt;
+    }
+
+    /** @return a copy of this entry with the given weight, sharing its refresh time. */
+    Entry withWeight(int weight) {
+      return new Entry(future, weight, expiresAt, refreshAt);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.AsyncCallable;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Limits the number of asynchronous tasks running at the same time, the tasks submitted while the limit is
+ * reached are queued and started in submission order as the running ones complete.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class ConcurrencyLimiter {
+  private final int maxConcurrent;
+  private final int maxPending;
+
+  // Guarded by this.
+  private final Queue<Task<?>> pending = new ArrayDeque<>();
+  private int running;
+
+  public ConcurrencyLimiter(int maxConcurrent) {
+    this(maxConcurrent, Integer.MAX_VALUE);
+  }
+
+  /** Creates a limiter queueing at most {@code maxPending} tasks, rejecting the tasks submitted past it. */
+  public ConcurrencyLimiter(int maxConcurrent, int maxPending) {
+    checkArgument(maxConcurrent > 0, "maxConcurrent must be positive");
+    checkArgument(maxPending >= 0, "maxPending must not be negative");
+    this.maxConcurrent = maxConcurrent;
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * Starts the given task once fewer than the maximum number of tasks are running. The returned future
+   * fails with a {@link RejectedExecutionException} if the task cannot be queued.
+   */
+  public <T> ListenableFuture<T> submit(AsyncCallable<T> callable) {
+    return submit(callable, directExecutor());
+  }
+
+  /**
+   * Same as {@link #submit(AsyncCallable)}, but a task that has to be queued is started on the given executor
+   * rather than on the thread completing the task it was waiting for. A task that can start right away still
+   * starts on the calling thread.
+   */
+  public <T> ListenableFuture<T> submit(AsyncCallable<T> callable, Executor queuedExecutor) {
+    Task<T> task = new Task<>(callable, queuedExecutor);
+    synchronized (this) {
+      if (running == maxConcurrent) {
+        if (pending.size() >= maxPending) {
+          return Futures.immediateFailedFuture(new RejectedExecutionException(
+              "Too many pending tasks, " + pending.size() + " are already pending"));
+        }
+        task.queued = true;
+        pending.add(task);
+        return task.result;
+      }
+      running++;
+    }
+    runFrom(task);
+    return task.result;
+  }
+
+  /** @return the number of tasks that are running. */
+  public synchronized int runningCount() {
+    return running;
+  }
+
+  /** @return the number of tasks waiting for others to complete. */
+  public synchronized int pendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Runs the given task and, as long as the tasks complete right away, the pending ones in a loop, so that a
+   * long queue of tasks completing right away does not overflow the stack.
+   */
+  private void runFrom(Task<?> task) {
+    while (task != null) {
+      ListenableFuture<?> future = task.start();
+      if (!future.isDone()) {
+        future.addListener(() -> runFrom(next()), directExecutor());
+        return;
+      }
+      task = next();
+    }
+  }
+
+  /** Returns the next pending task reusing the permit of a completed one, or releases the permit. */
+  private synchronized Task<?> next() {
+    Task<?> next = pending.poll();
+    if (next == null) {
+      running--;
+    }
+    return next;
+  }
+
+  private static final class Task<T> {
+    final AsyncCallable<T> callable;
+    final Executor queuedExecutor;
+    final SettableFuture<T> result = SettableFuture.create();
+    // Set holding the lock of the limiter, before the task can be taken from the queue.
+    boolean queued;
+
+    Task(AsyncCallable<T> callable, Executor queuedExecutor) {
+      this.callable = callable;
+      this.queuedExecutor = queuedExecutor;
+    }
+
+    ListenableFuture<T> start() {
+      if (result.isCancelled()) {
+        return result;
+      }
+      ListenableFuture<T> future;
+      try {
+        future = queued ? Futures.submitAsync(callable, queuedExecutor) : callable.call();
+      } catch (Throwable throwable) {
+        future = Futures.immediateFailedFuture(throwable);
+      }
+      result.setFuture(future);
+      return future;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import io.github.gonalez.zenbo.EndpointStats;
+import io.github.gonalez.zenbo.ImmutableEndpointStats;
+import io.github.gonalez.zenbo.InMemoryInstrumentation;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A default implementation of {@link InMemoryInstrumentation}, recording the events of each type of
+ * request in counters and histograms that are updated without locking.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultInMemoryInstrumentation implements InMemoryInstrumentation {
+  private final Ticker ticker;
+  // Kept outside the recorders so that a reset while requests are in flight does not skew it.
+  private final ConcurrentHashMap<Class<?>, LongAdder> inFlight = new ConcurrentHashMap<>();
+  private volatile Recorders recorders;
+
+  public DefaultInMemoryInstrumentation() {
+    this(Ticker.systemTicker());
+  }
+
+  DefaultInMemoryInstrumentation(Ticker ticker) {
+    this.ticker = ticker;
+    this.recorders = new Recorders(ticker.read());
+  }
+
+  @Override
+  public void onCacheHit(Class<?> requestType) {
+    recorder(requestType).cacheHits.increment();
+  }
+
+  @Override
+  public void onCacheMiss(Class<?> requestType) {
+    recorder(requestType).cacheMisses.increment();
+  }
+
+  @Override
+  public void onCoalesced(Class<?> requestType) {
+    recorder(requestType).coalesced.increment();
+  }
+
+  @Override
+  public void onRequestStarted(Class<?> requestType) {
+    Recorder recorder = recorder(requestType);
+    recorder.requests.increment();
+    inFlight(requestType).increment();
+  }
+
+  @Override
+  public void onRequestSucceeded(
+      Class<?> requestType, int statusCode, long latencyNanos, long bytesRead, long parseNanos) {
+    Recorder recorder = recorder(requestType);
+    inFlight(requestType).decrement();
+    recorder.bytesRead.add(bytesRead);
+    recorder.latency.record(latencyNanos);
+    recorder.parseTime.record(parseNanos);
+  }
+
+  @Override
+  public void onRequestFailed(Class<?> requestType, int statusCode, long latencyNanos) {
+    Recorder recorder = recorder(requestType);
+    inFlight(requestType).decrement();
+    recorder.latency.record(latencyNanos);
+    recorder.failures.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+  }
+
+  @Override
+  public EndpointStats stats(Class<?> requestType) {
+    Recorders recorders = this.recorders;
+    Recorder recorder = recorders.byRequestType.get(requestType);
+    return (recorder != null ? recorder : new Recorder())
+        .snapshot(elapsed(recorders), inFlightCount(requestType));
+  }
+
+  @Override
+  public Map<Class<?>, EndpointStats> stats() {
+    Recorders recorders = this.recorders;
+    Duration elapsed = elapsed(recorders);
+    ImmutableMap.Builder<Class<?>, EndpointStats> stats = ImmutableMap.builder();
+    recorders.byRequestType.forEach((requestType, recorder) -> stats.put(requestType, recorder.snapshot(elapsed, inFlightCount(requestType))));
+    return stats.build();
+  }
+
+  /** Discards all the recorded metrics, except the number of requests that are still in flight. */
+  @Override
+  public void reset() {
+    recorders = new Recorders(ticker.read());
+  }
+
+  private Recorder recorder(Class<?> requestType) {
+    return recorders.byRequestType.computeIfAbsent(requestType, type -> new Recorder());
+  }
+
+  private LongAdder inFlight(Class<?> requestType) {
+    return inFlight.computeIfAbsent(requestType, type -> new LongAdder());
+  }
+
+  private long inFlightCount(Class<?> requestType) {
+    LongAdder count = inFlight.get(requestType);
+    return count != null ? count.sum() : 0;
+  }
+
+  private Duration elapsed(Recorders recorders) {
+    return Duration.ofNanos(ticker.read() - recorders.startNanos);
+  }
+
+  /** The recorders of every type of request since a point in time. */
+  private static final class Recorders {
+    final long startNanos;
+    final ConcurrentHashMap<Class<?>, Recorder> byRequestType = new ConcurrentHashMap<>();
+
+    Recorders(long startNanos) {
+      this.startNanos = startNanos;
+    }
+  }
+
+  private static final class Recorder {
+    final LongAdder requests = new LongAdder();
+    final LongAdder cacheHits = new LongAdder();
+    final LongAdder cacheMisses = new LongAdder();
+    final LongAdder coalesced = new LongAdder();
+    final LongAdder bytesRead = new LongAdder();
+    final ConcurrentHashMap<Integer, LongAdder> failures = new ConcurrentHashMap<>();
+    final Histogram latency = new Histogram();
+    final Histogram parseTime = new Histogram();
+
+    EndpointStats snapshot(Duration elapsed, long inFlightCount) {
+      ImmutableMap.Builder<Integer, Long> failureCounts = ImmutableMap.builder();
+      failures.forEach((statusCode, count) -> failureCounts.put(statusCode, count.sum()));
+      return ImmutableEndpointStats.builder()
+          .elapsed(elapsed)
+          .requestCount(requests.sum())
+          .inFlightCount(inFlightCount)
+          .cacheHitCount(cacheHits.sum())
+          .cacheMissCount(cacheMisses.sum())
+          .coalescedCount(coalesced.sum())
+          .bytesRead(bytesRead.sum())
+          .failureCountByStatusCode(failureCounts.build())
+          .latency(latency.snapshot())
+          .parseTime(parseTime.snapshot())
+          .build();
+    }
+  }
+}
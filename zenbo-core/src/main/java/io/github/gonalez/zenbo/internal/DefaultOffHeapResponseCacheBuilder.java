@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import io.github.gonalez.zenbo.OffHeapResponseFutureCache;
+import io.github.gonalez.zenbo.Request;
+import io.github.gonalez.zenbo.Response;
+import io.github.gonalez.zenbo.ResponseCodec;
+
+import java.time.Duration;
+
+/**
+ * A default implementation of {@link OffHeapResponseFutureCache.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultOffHeapResponseCacheBuilder implements OffHeapResponseFutureCache.Builder {
+  final ImmutableMap.Builder<Class<?>, ResponseCodec<?>> codecs = ImmutableMap.builder();
+
+  long onHeapMaximumSize = 10_000;
+  int offHeapCapacity = 64 << 20;
+  Duration expireAfterWrite;
+  Ticker ticker = Ticker.systemTicker();
+
+  @Override
+  public OffHeapResponseFutureCache.Builder onHeapMaximumSize(long onHeapMaximumSize) {
+    checkArgument(onHeapMaximumSize >= 0, "onHeapMaximumSize must not be negative");
+    this.onHeapMaximumSize = onHeapMaximumSize;
+    return this;
+  }
+
+  @Override
+  public OffHeapResponseFutureCache.Builder offHeapCapacity(int offHeapCapacity) {
+    checkArgument(offHeapCapacity > 0, "offHeapCapacity must be positive");
+    this.offHeapCapacity = offHeapCapacity;
+    return this;
+  }
+
+  @Override
+  public OffHeapResponseFutureCache.Builder expireAfterWrite(Duration duration) {
+    checkArgument(!duration.isNegative(), "duration must not be negative");
+    this.expireAfterWrite = duration;
+    return this;
+  }
+
+  @Override
+  public OffHeapResponseFutureCache.Builder ticker(Ticker ticker) {
+    this.ticker = checkNotNull(ticker);
+    return this;
+  }
+
+  @Override
+  public <T extends Response> OffHeapResponseFutureCache.Builder codec(
+      Class<? extends Request<T>> requestType, ResponseCodec<T> codec) {
+    codecs.put(checkNotNull(requestType), checkNotNull(codec));
+    return this;
+  }
+
+  @Override
+  public OffHeapResponseFutureCache build() {
+    return new OffHeapResponseCache(this);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.gonalez.zenbo.PersistentResponseFutureCache;
+import io.github.gonalez.zenbo.Request;
+import io.github.gonalez.zenbo.Response;
+import io.github.gonalez.zenbo.ResponseCodec;
+import io.github.gonalez.zenbo.ResponseFutureCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A default implementation of {@link PersistentResponseFutureCache.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultPersistentResponseCacheBuilder implements PersistentResponseFutureCache.Builder {
+  final ImmutableMap.Builder<Class<?>, ResponseCodec<?>> codecs = ImmutableMap.builder();
+
+  Path file;
+  ResponseFutureCache memoryCache;
+  Duration expireAfterWrite;
+  Duration syncInterval = Duration.ofSeconds(1);
+
+  @Override
+  public PersistentResponseFutureCache.Builder file(Path file) {
+    this.file = checkNotNull(file);
+    return this;
+  }
+
+  @Override
+  public PersistentResponseFutureCache.Builder memoryCache(ResponseFutureCache memoryCache) {
+    this.memoryCache = checkNotNull(memoryCache);
+    return this;
+  }
+
+  @Override
+  public <T extends Response> PersistentResponseFutureCache.Builder codec(
+      Class<? extends Request<T>> requestType, ResponseCodec<T> codec) {
+    codecs.put(checkNotNull(requestType), checkNotNull(codec));
+    return this;
+  }
+
+  @Override
+  public PersistentResponseFutureCache.Builder expireAfterWrite(Duration duration) {
+    checkArgument(!duration.isNegative(), "duration must not be negative");
+    this.expireAfterWrite = duration;
+    return this;
+  }
+
+  @Override
+  public PersistentResponseFutureCache.Builder syncInterval(Duration syncInterval) {
+    checkArgument(!syncInterval.isNegative() && !syncInterval.isZero(), "syncInterval must be positive");
+    this.syncInterval = syncInterval;
+    return this;
+  }
+
+  @Override
+  public PersistentResponseFutureCache build() throws IOException {
+    checkState(file != null, "file is required");
+    return new PersistentResponseCache(this);
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * A default implementation of {@link RateLimitedTransport}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultRateLimitedTransport implements RateLimitedTransport {
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final HttpTransport transport;
+  private final ImmutableMap<String, RateLimiter> rateLimiters;
+  private final Supplier<? extends RateLimiter> defaultRateLimiter;
+  private final ConcurrentHashMap<String, RateLimiter> defaultRateLimiters = new ConcurrentHashMap<>();
+  private final int maxRetries;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final IntPredicate retryableResponseCodes;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+
+  DefaultRateLimitedTransport(DefaultRateLimitedTransportBuilder builder) {
+    this.transport = builder.transport;
+    this.rateLimiters = builder.rateLimiters.build();
+    this.defaultRateLimiter = builder.defaultRateLimiter;
+    this.maxRetries = builder.maxRetries;
+    this.initialBackoffNanos = builder.initialBackoff.toNanos();
+    this.maxBackoffNanos = builder.maxBackoff.toNanos();
+    this.retryableResponseCodes = builder.retryableResponseCodes;
+    this.scheduler = builder.scheduler();
+    this.executor = builder.executor();
+  }
+
+  @Override
+  public ListenableFuture<TransportResponse> execute(TransportRequest request) {
+    Call call = new Call(request, rateLimiter(URI.create(request.url()).getHost()));
+    call.schedule(0);
+    return call.result;
+  }
+
+  private RateLimiter rateLimiter(String host) {
+    RateLimiter rateLimiter = rateLimiters.get(host);
+    if (rateLimiter != null) {
+      return rateLimiter;
+    }
+    return defaultRateLimiters.computeIfAbsent(host, unused -> defaultRateLimiter.get());
+  }
+
+  /** @return the delay in nanoseconds of the given retry, with a random jitter of up to a half of it. */
+  private long backoffNanos(int retry) {
+    long backoffNanos = initialBackoffNanos << Math.min(retry, 30);
+    if (backoffNanos < 0 || backoffNanos > maxBackoffNanos) {
+      backoffNanos = maxBackoffNanos;
+    }
+    return backoffNanos - ThreadLocalRandom.current().nextLong(backoffNanos / 2 + 1);
+  }
+
+  /** @return the delay in nanoseconds requested by the {@code Retry-After} header of the response, if any. */
+  private static Optional<Long> retryAfterNanos(TransportResponse response) {
+    Optional<String> retryAfter = response.header("Retry-After");
+    if (!retryAfter.isPresent()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter.get().trim()))));
+    } catch (NumberFormatException ignored) {
+      // Not in delay-seconds, try with a HTTP date.
+    }
+    try {
+      ZonedDateTime date = ZonedDateTime.parse(retryAfter.get().trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      return Optional.of(Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toNanos()));
+    } catch (DateTimeParseException | ArithmeticException e) {
+      return Optional.empty();
+    }
+  }
+
+  /** The attempts to send a request, until a response is returned or the retries are exhausted. */
+  private final class Call {
+    final SettableFuture<TransportResponse> result = SettableFuture.create();
+    final TransportRequest request;
+    final RateLimiter rateLimiter;
+
+    int retries;
+    volatile Future<?> current;
+
+    Call(TransportRequest request, RateLimiter rateLimiter) {
+      this.request = request;
+      this.rateLimiter = rateLimiter;
+      result.addListener(() -> {
+        Future<?> current = this.current;
+        if (result.isCancelled() && current != null) {
+          current.cancel(true);
+        }
+      }, directExecutor());
+    }
+
+    void schedule(long minDelayNanos) {
+      long delayNanos = Math.max(minDelayNanos, rateLimiter.reserve());
+      if (delayNanos <= 0) {
+        send();
+        return;
+      }
+      try {
+        // The scheduler only waits for the delay, a blocking transport would hold its thread while sending.
+        current = scheduler.schedule(this::sendOnExecutor, delayNanos, TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        result.setException(e);
+      }
+    }
+
+    void sendOnExecutor() {
+      try {
+        executor.execute(this::send);
+      } catch (RejectedExecutionException e) {
+        result.setException(e);
+      }
+    }
+
+    void send() {
+      if (result.isDone()) {
+        return;
+      }
+      ListenableFuture<TransportResponse> future = transport.execute(request);
+      current = future;
+      Futures.addCallback(future, new FutureCallback<TransportResponse>() {
+        @Override
+        public void onSuccess(TransportResponse response) {
+          if (retries < maxRetries && retryableResponseCodes.test(response.code()) && !result.isDone()) {
+            long delayNanos = retryAfterNanos(response).orElseGet(() -> backoffNanos(retries));
+            if (response.code() == TOO_MANY_REQUESTS) {
+              rateLimiter.pause(Duration.ofNanos(delayNanos));
+            }
+            response.close();
+            retries++;
+            schedule(delayNanos);
+          } else if (!result.set(response)) {
+            response.close();
+          }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+          if (throwable instanceof IOException && retries < maxRetries && !result.isDone()) {
+            schedule(backoffNanos(retries++));
+          } else {
+            result.setException(throwable);
+          }
+        }
+      }, directExecutor());
+    }
+  }
+}
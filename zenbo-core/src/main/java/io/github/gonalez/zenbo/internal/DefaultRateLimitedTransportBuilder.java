@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.gonalez.zenbo.HttpTransport;
+import io.github.gonalez.zenbo.RateLimitedTransport;
+import io.github.gonalez.zenbo.RateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * A default implementation of {@link RateLimitedTransport.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultRateLimitedTransportBuilder implements RateLimitedTransport.Builder {
+  final ImmutableMap.Builder<String, RateLimiter> rateLimiters = ImmutableMap.builder();
+
+  HttpTransport transport;
+  Supplier<? extends RateLimiter> defaultRateLimiter =
+      () -> RateLimiter.tokenBucket(600, Duration.ofMinutes(10));
+  int maxRetries = 3;
+  Duration initialBackoff = Duration.ofMillis(500);
+  Duration maxBackoff = Duration.ofSeconds(30);
+  IntPredicate retryableResponseCodes = responseCode -> responseCode == 429 || responseCode >= 500;
+  ScheduledExecutorService scheduler;
+  Executor executor;
+
+  @Override
+  public RateLimitedTransport.Builder transport(HttpTransport transport) {
+    this.transport = checkNotNull(transport);
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport.Builder rateLimiter(String host, RateLimiter rateLimiter) {
+    rateLimiters.put(checkNotNull(host), checkNotNull(rateLimiter));
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport.Builder defaultRateLimiter(Supplier<? extends RateLimiter> rateLimiterSupplier) {
+    this.defaultRateLimiter = checkNotNull(rateLimiterSupplier);
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport.Builder maxRetries(int maxRetries) {
+    checkArgument(maxRetries >= 0, "maxRetries must not be negative");
+    this.maxRetries = maxRetries;
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport.Builder backoff(Duration initialBackoff, Duration maxBackoff) {
+    checkArgument(!initialBackoff.isNegative(), "initialBackoff must not be negative");
+    checkArgument(maxBackoff.compareTo(initialBackoff) >= 0, "maxBackoff must not be less than initialBackoff");
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport.Builder retryableResponseCodes(IntPredicate retryable) {
+    this.retryableResponseCodes = checkNotNull(retryable);
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport.Builder scheduler(ScheduledExecutorService scheduler) {
+    this.scheduler = checkNotNull(scheduler);
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport.Builder executor(Executor executor) {
+    this.executor = checkNotNull(executor);
+    return this;
+  }
+
+  @Override
+  public RateLimitedTransport build() {
+    checkState(transport != null, "transport is required");
+    return new DefaultRateLimitedTransport(this);
+  }
+
+  ScheduledExecutorService scheduler() {
+    if (scheduler != null) {
+      return scheduler;
+    }
+    return Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("zenbo-rate-limiter-%d")
+        .build());
+  }
+
+  Executor executor() {
+    if (executor != null) {
+      return executor;
+    }
+    return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("zenbo-rate-limiter-sender-%d")
+        .build());
+  }
+}
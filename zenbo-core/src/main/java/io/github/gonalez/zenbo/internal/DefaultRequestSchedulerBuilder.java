@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.github.gonalez.zenbo.Request.Priority;
+import io.github.gonalez.zenbo.RequestScheduler;
+
+import java.util.EnumMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A default implementation of {@link RequestScheduler.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultRequestSchedulerBuilder implements RequestScheduler.Builder {
+  final EnumMap<Priority, Integer> maxConcurrentRequests = new EnumMap<>(Priority.class);
+  final EnumMap<Priority, Integer> maxQueuedRequests = new EnumMap<>(Priority.class);
+  Executor executor = MoreExecutors.directExecutor();
+
+  public DefaultRequestSchedulerBuilder() {
+    for (Priority priority : Priority.values()) {
+      maxConcurrentRequests.put(priority, priority == Priority.INTERACTIVE ? 64 : 4);
+      maxQueuedRequests.put(priority, 1024);
+    }
+  }
+
+  @Override
+  public RequestScheduler.Builder maxConcurrentRequests(Priority priority, int maxConcurrentRequests) {
+    checkArgument(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+    this.maxConcurrentRequests.put(checkNotNull(priority), maxConcurrentRequests);
+    return this;
+  }
+
+  @Override
+  public RequestScheduler.Builder maxQueuedRequests(Priority priority, int maxQueuedRequests) {
+    checkArgument(maxQueuedRequests >= 0, "maxQueuedRequests must not be negative");
+    this.maxQueuedRequests.put(checkNotNull(priority), maxQueuedRequests);
+    return this;
+  }
+
+  @Override
+  public RequestScheduler.Builder executor(Executor executor) {
+    this.executor = checkNotNull(executor);
+    return this;
+  }
+
+  @Override
+  public RequestScheduler build() {
+    return new PriorityRequestScheduler(this);
+  }
+}
@@ -17,41 +17,53 @@ package io.github.gonalez.zenbo.internal;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.github.gonalez.zenbo.LookupKey;
 import io.github.gonalez.zenbo.Request;
 import io.github.gonalez.zenbo.Response;
 import io.github.gonalez.zenbo.ResponseFutureCache;
-
-import java.util.HashMap;
+import io.github.gonalez.zenbo.ResponseNotFoundException;
+import io.github.gonalez.zenbo.Responses;
 
 /**
- * A simple implementation of {@link ResponseFutureCache}.
+ * A simple implementation of {@link ResponseFutureCache}, which never evicts the cached futures. Futures
+ * are only removed when they fail with an exception other than {@link ResponseNotFoundException}.
+ *
+ * <p>The futures are keyed by the {@link Request#lookupKey() lookup key} of the requests, so requests for
+ * the same lookup share the future regardless of their listener or options, and the requests themselves
+ * are not retained.
  *
  * @author Gaston Gonzalez (Gonalez)
  */
 public class DefaultResponseCache implements ResponseFutureCache {
-  private final HashMap<Request<?>, ListenableFuture<? extends Response>> futures = new HashMap<>();
+  private final LookupKeyMap<ListenableFuture<? extends Response>> futures = new LookupKeyMap<>();
 
   @Override
   public <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future) {
-    futures.put(request, future);
+    LookupKey lookupKey = request.lookupKey();
+    futures.put(lookupKey, future);
+    future.addListener(() -> {
+      if (!Responses.isCacheableResult(future)) {
+        futures.remove(lookupKey, future);
+      }
+    }, MoreExecutors.directExecutor());
     return future;
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public <T extends Response> ListenableFuture<T> get(Request<T> request) {
-    if (!contains(request)) {
-      return Futures.immediateFuture(null);
-    }
-    return (ListenableFuture<T>) futures.get(request);
+    ListenableFuture<T> future = (ListenableFuture<T>) futures.get(request.lookupKey());
+    return future == null ? Futures.immediateFuture(null) : future;
   }
 
   @Override
   public <T extends Response> void remove(Request<T> request) {
-    futures.remove(request);
+    futures.remove(request.lookupKey());
   }
 
   @Override
   public <T extends Response> boolean contains(Request<T> request) {
-    return futures.containsKey(request);
+    return futures.get(request.lookupKey()) != null;
   }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import io.github.gonalez.zenbo.Request;
+import io.github.gonalez.zenbo.ResponseFutureCache;
+
+import java.time.Duration;
+
+/**
+ * A default implementation of {@link ResponseFutureCache.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultResponseFutureCacheBuilder implements ResponseFutureCache.Builder {
+  static final long UNSET = -1;
+
+  private final ImmutableMap.Builder<Class<?>, Long> expireAfterWriteNanos = ImmutableMap.builder();
+
+  long maximumSize = UNSET;
+  long maximumWeight = UNSET;
+  ResponseFutureCache.Weigher weigher;
+  long defaultExpireAfterWriteNanos = Long.MAX_VALUE;
+  long refreshAfterWriteNanos = Long.MAX_VALUE;
+  long expireNotFoundAfterWriteNanos = Long.MAX_VALUE;
+  Ticker ticker = Ticker.systemTicker();
+
+  @Override
+  public ResponseFutureCache.Builder maximumSize(long maximumSize) {
+    checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+    checkState(maximumWeight == UNSET, "maximumWeight was already set");
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  @Override
+  public ResponseFutureCache.Builder maximumWeight(long maximumWeight, ResponseFutureCache.Weigher weigher) {
+    checkArgument(maximumWeight >= 0, "maximumWeight must not be negative");
+    checkState(maximumSize == UNSET, "maximumSize was already set");
+    this.maximumWeight = maximumWeight;
+    this.weigher = checkNotNull(weigher);
+    return this;
+  }
+
+  @Override
+  public ResponseFutureCache.Builder expireAfterWrite(Duration duration) {
+    this.defaultExpireAfterWriteNanos = toNanos(duration);
+    return this;
+  }
+
+  @Override
+  public ResponseFutureCache.Builder expireAfterWrite(Class<? extends Request<?>> requestType, Duration duration) {
+    expireAfterWriteNanos.put(checkNotNull(requestType), toNanos(duration));
+    return this;
+  }
+
+  @Override
+  public ResponseFutureCache.Builder refreshAfterWrite(Duration duration) {
+    this.refreshAfterWriteNanos = toNanos(duration);
+    return this;
+  }
+
+  @Override
+  public ResponseFutureCache.Builder expireNotFoundAfterWrite(Duration duration) {
+    this.expireNotFoundAfterWriteNanos = toNanos(duration);
+    return this;
+  }
+
+  @Override
+  public ResponseFutureCache.Builder ticker(Ticker ticker) {
+    this.ticker = checkNotNull(ticker);
+    return this;
+  }
+
+  @Override
+  public ResponseFutureCache build() {
+    return new BoundedResponseCache(this);
+  }
+
+  ImmutableMap<Class<?>, Long> expireAfterWriteNanos() {
+    return expireAfterWriteNanos.build();
+  }
+
+  private static long toNanos(Duration duration) {
+    checkArgument(!duration.isNegative(), "duration must not be negative");
+    return duration.toNanos();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.HostOptions;
+import io.github.gonalez.zenbo.HttpTransport;
+import io.github.gonalez.zenbo.TransportRequest;
+import io.github.gonalez.zenbo.TransportResponse;
+import io.github.gonalez.zenbo.ZenboClient;
+import okhttp3.*;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A default implementation of {@link ZenboClient}, creating the client of each host the first time a request
+ * is sent to it.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+final class DefaultZenboClient implements ZenboClient, HttpTransport {
+  private final OkHttpClient baseHttpClient;
+  private final ImmutableMap<String, HostOptions> hostOptions;
+  private final HostOptions defaultHostOptions;
+  private final boolean async;
+  private final ConcurrentHashMap<String, HostClient> hostClients = new ConcurrentHashMap<>();
+
+  DefaultZenboClient(DefaultZenboClientBuilder builder) {
+    this.baseHttpClient = builder.baseHttpClient != null ? builder.baseHttpClient : new OkHttpClient();
+    this.hostOptions = builder.hostOptions.build();
+    this.defaultHostOptions = builder.defaultHostOptions;
+    this.async = builder.async;
+  }
+
+  @Override
+  public HttpTransport transport() {
+    return this;
+  }
+
+  @Override
+  public ListenableFuture<TransportResponse> execute(TransportRequest request) {
+    String host = URI.create(request.url()).getHost();
+    return hostClients.computeIfAbsent(host, this::newHostClient).transport.execute(request);
+  }
+
+  @Override
+  public void close() {
+    for (HostClient hostClient : hostClients.values()) {
+      hostClient.httpClient.dispatcher().executorService().shutdown();
+      hostClient.httpClient.connectionPool().evictAll();
+    }
+  }
+
+  private HostClient newHostClient(String host) {
+    HostOptions options = hostOptions.getOrDefault(host, defaultHostOptions);
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(options.maxConcurrentRequests());
+    dispatcher.setMaxRequestsPerHost(options.maxConcurrentRequests());
+    OkHttpClient httpClient = baseHttpClient.newBuilder()
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(
+            options.maxIdleConnections(), options.keepAlive().toNanos(), TimeUnit.NANOSECONDS))
+        .connectTimeout(options.connectTimeout())
+        .readTimeout(options.readTimeout())
+        .callTimeout(options.callTimeout())
+        .protocols(options.preferHttp2()
+            ? ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+            : ImmutableList.of(Protocol.HTTP_1_1))
+        .addInterceptor(new ResponseBodyLimitInterceptor(options.maxResponseBodyBytes()))
+        .build();
+    return new HostClient(httpClient, new OkHttpTransport(httpClient, async));
+  }
+
+  private static final class HostClient {
+    final OkHttpClient httpClient;
+    final HttpTransport transport;
+
+    HostClient(OkHttpClient httpClient, HttpTransport transport) {
+      this.httpClient = httpClient;
+      this.transport = transport;
+    }
+  }
+
+  /** Fails the responses whose body is larger than a limit, before or while reading it. */
+  private static final class ResponseBodyLimitInterceptor implements Interceptor {
+    private final long maxBytes;
+
+    ResponseBodyLimitInterceptor(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+      Response response = chain.proceed(chain.request());
+      ResponseBody body = response.body();
+      if (body == null) {
+        return response;
+      }
+      if (body.contentLength() > maxBytes) {
+        response.close();
+        throw new IOException(
+            "Response body of " + body.contentLength() + " bytes exceeds the limit of " + maxBytes + " bytes");
+      }
+      ForwardingSource limitedSource = new ForwardingSource(body.source()) {
+        private long bytesRead;
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+          long read = super.read(sink, byteCount);
+          if (read > 0) {
+            bytesRead += read;
+            if (bytesRead > maxBytes) {
+              throw new IOException("Response body exceeds the limit of " + maxBytes + " bytes");
+            }
+          }
+          return read;
+        }
+      };
+      return response.newBuilder()
+          .body(ResponseBody.create(Okio.buffer(limitedSource), body.contentType(), body.contentLength()))
+          .build();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.gonalez.zenbo.HostOptions;
+import io.github.gonalez.zenbo.ZenboClient;
+import okhttp3.OkHttpClient;
+
+/**
+ * A default implementation of {@link ZenboClient.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultZenboClientBuilder implements ZenboClient.Builder {
+  final ImmutableMap.Builder<String, HostOptions> hostOptions = ImmutableMap.builder();
+
+  OkHttpClient baseHttpClient;
+  HostOptions defaultHostOptions = HostOptions.defaults();
+  boolean async = true;
+
+  @Override
+  public ZenboClient.Builder baseHttpClient(OkHttpClient baseHttpClient) {
+    this.baseHttpClient = checkNotNull(baseHttpClient);
+    return this;
+  }
+
+  @Override
+  public ZenboClient.Builder defaultHostOptions(HostOptions hostOptions) {
+    this.defaultHostOptions = checkNotNull(hostOptions);
+    return this;
+  }
+
+  @Override
+  public ZenboClient.Builder hostOptions(String host, HostOptions hostOptions) {
+    this.hostOptions.put(checkNotNull(host), checkNotNull(hostOptions));
+    return this;
+  }
+
+  @Override
+  public ZenboClient.Builder async(boolean async) {
+    this.async = async;
+    return this;
+  }
+
+  @Override
+  public ZenboClient build() {
+    return new DefaultZenboClient(this);
+  }
+}
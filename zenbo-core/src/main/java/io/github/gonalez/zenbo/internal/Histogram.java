@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import io.github.gonalez.zenbo.EndpointStats;
+import io.github.gonalez.zenbo.ImmutableDistribution;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative values, with buckets growing exponentially so that every value
+ * is counted with a relative error of at most 12.5%, in a fixed amount of memory.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+final class Histogram {
+  /** Values below this are counted exactly, each one in its own bucket. */
+  private static final int LINEAR_BUCKETS = 16;
+  /** The bits of each power of two that are kept, splitting it into 8 buckets. */
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_BITS = 4;
+
+  private final AtomicLongArray buckets =
+      new AtomicLongArray(LINEAR_BUCKETS + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKETS);
+  private final AtomicLong max = new AtomicLong();
+
+  void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    buckets.incrementAndGet(bucketOf(value));
+    max.accumulateAndGet(value, Math::max);
+  }
+
+  EndpointStats.Distribution snapshot() {
+    long[] counts = new long[buckets.length()];
+    long count = 0;
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = buckets.get(i);
+      count += counts[i];
+    }
+    long max = this.max.get();
+    return ImmutableDistribution.builder()
+        .count(count)
+        .p50(percentile(counts, count, 0.5, max))
+        .p90(percentile(counts, count, 0.9, max))
+        .p99(percentile(counts, count, 0.99, max))
+        .max(max)
+        .build();
+  }
+
+  private static long percentile(long[] counts, long count, double percentile, long max) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile * count);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), max);
+      }
+    }
+    return max;
+  }
+
+  static int bucketOf(long value) {
+    if (value < LINEAR_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+  }
+
+  static long highestValueOf(int bucket) {
+    if (bucket < LINEAR_BUCKETS) {
+      return bucket;
+    }
+    int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+    int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+    long lowest = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+}
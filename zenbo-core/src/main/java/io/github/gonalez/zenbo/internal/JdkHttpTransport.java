@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.HttpTransport;
+import io.github.gonalez.zenbo.TransportRequest;
+import io.github.gonalez.zenbo.TransportResponse;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A {@link HttpTransport} backed by the {@link HttpClient} of the JDK, sending the requests asynchronously.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class JdkHttpTransport implements HttpTransport {
+  private final HttpClient httpClient;
+
+  public JdkHttpTransport(HttpClient httpClient) {
+    this.httpClient = httpClient;
+  }
+
+  @Override
+  public ListenableFuture<TransportResponse> execute(TransportRequest request) {
+    CompletableFuture<HttpResponse<InputStream>> call =
+        httpClient.sendAsync(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+    SettableFuture<TransportResponse> future = SettableFuture.create();
+    call.whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        future.setException(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+      } else {
+        JdkTransportResponse transportResponse = new JdkTransportResponse(response);
+        if (!future.set(transportResponse)) {
+          transportResponse.close();
+        }
+      }
+    });
+    future.addListener(() -> {
+      if (future.isCancelled()) {
+        call.cancel(true);
+      }
+    }, directExecutor());
+    return future;
+  }
+
+  private static HttpRequest toHttpRequest(TransportRequest request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()));
+    if (request.jsonBody().isPresent()) {
+      builder.header("Content-Type", "application/json; charset=utf-8")
+          .POST(HttpRequest.BodyPublishers.ofString(request.jsonBody().get()));
+    }
+    return builder.build();
+  }
+
+  private static final class JdkTransportResponse implements TransportResponse {
+    private final HttpResponse<InputStream> response;
+
+    JdkTransportResponse(HttpResponse<InputStream> response) {
+      this.response = response;
+    }
+
+    @Override
+    public int code() {
+      return response.statusCode();
+    }
+
+    @Override
+    public Optional<String> header(String name) {
+      return response.headers().firstValue(name);
+    }
+
+    @Override
+    public InputStream body() {
+      return response.body();
+    }
+
+    @Override
+    public void close() {
+      Closeables.closeQuietly(response.body());
+    }
+  }
+}
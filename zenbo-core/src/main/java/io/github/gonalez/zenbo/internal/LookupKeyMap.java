@@ -0,0 +1,304 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.gonalez.zenbo.LookupKey;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread-safe map keyed by {@link LookupKey}s, which stores the keys flattened into arrays instead of
+ * keeping the key objects. Uuid values are stored as their two longs, and other values, like lowercase
+ * usernames, are kept as is along with their hash code.
+ *
+ * <p>The map is split in segments, each an open addressing table with linear probing guarded by its own
+ * lock. The longs of each slot are stored next to each other in one array and its references in another,
+ * so a probe touches two cache lines. Lookups first read the table optimistically without locking, and only
+ * take the read lock if a write happened meanwhile.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class LookupKeyMap<V> {
+  private static final int SEGMENT_BITS = 4;
+  private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+  // The layout of each slot in the arrays of a segment, where a null type marks an empty slot.
+  private static final int MSB = 0;
+  private static final int LSB = 1;
+  private static final int LONGS_PER_SLOT = 2;
+  private static final int TYPE = 0;
+  private static final int NAME = 1;
+  private static final int VALUE = 2;
+  private static final int REFERENCES_PER_SLOT = 3;
+
+  private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+  public LookupKeyMap() {
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment(INITIAL_SEGMENT_CAPACITY);
+    }
+  }
+
+  /** @return the value of the given key, or {@code null} if there is none. */
+  @SuppressWarnings("unchecked")
+  public V get(LookupKey key) {
+    Class<?> type = key.requestType();
+    Object value = key.value();
+    if (value instanceof UUID) {
+      UUID uuid = (UUID) value;
+      return (V) get(type, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null);
+    }
+    return (V) get(type, value.hashCode(), 0, value);
+  }
+
+  /** Associates the given value to the given key, returning the previous value if any. */
+  @SuppressWarnings("unchecked")
+  public V put(LookupKey key, V value) {
+    checkNotNull(value);
+    Class<?> type = key.requestType();
+    Object keyValue = key.value();
+    if (keyValue instanceof UUID) {
+      UUID uuid = (UUID) keyValue;
+      return (V) put(type, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null, value);
+    }
+    return (V) put(type, keyValue.hashCode(), 0, keyValue, value);
+  }
+
+  /** Removes the value of the given key, returning it if any. */
+  @SuppressWarnings("unchecked")
+  public V remove(LookupKey key) {
+    return (V) removeIfMatches(key, null);
+  }
+
+  /** Removes the value of the given key only if it is the given one, returning whether it was removed. */
+  public boolean remove(LookupKey key, V value) {
+    return removeIfMatches(key, checkNotNull(value)) != null;
+  }
+
+  /** @return the number of keys in this map. */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      long stamp = segment.readLock();
+      try {
+        size += segment.size;
+      } finally {
+        segment.unlockRead(stamp);
+      }
+    }
+    return size;
+  }
+
+  private Object get(Class<?> type, long msb, long lsb, Object name) {
+    int hash = hash(type, msb, lsb);
+    Segment segment = segmentOf(hash);
+    long stamp = segment.tryOptimisticRead();
+    if (stamp != 0) {
+      Object value = segment.find(type, msb, lsb, name, hash);
+      if (segment.validate(stamp)) {
+        return value;
+      }
+    }
+    stamp = segment.readLock();
+    try {
+      return segment.find(type, msb, lsb, name, hash);
+    } finally {
+      segment.unlockRead(stamp);
+    }
+  }
+
+  private Object put(Class<?> type, long msb, long lsb, Object name, Object value) {
+    int hash = hash(type, msb, lsb);
+    Segment segment = segmentOf(hash);
+    long stamp = segment.writeLock();
+    try {
+      int slot = segment.slotOf(type, msb, lsb, name, hash);
+      if (slot >= 0) {
+        Object previous = segment.references[slot * REFERENCES_PER_SLOT + VALUE];
+        segment.references[slot * REFERENCES_PER_SLOT + VALUE] = value;
+        return previous;
+      }
+      if ((segment.size + 1) * 2 > segment.capacity()) {
+        segment.resize(segment.capacity() * 2);
+        slot = segment.slotOf(type, msb, lsb, name, hash);
+      }
+      segment.set(~slot, type, msb, lsb, name, value);
+      segment.size++;
+      return null;
+    } finally {
+      segment.unlockWrite(stamp);
+    }
+  }
+
+  private Object removeIfMatches(LookupKey key, Object expectedValue) {
+    Class<?> type = key.requestType();
+    Object keyValue = key.value();
+    long msb;
+    long lsb;
+    Object name;
+    if (keyValue instanceof UUID) {
+      msb = ((UUID) keyValue).getMostSignificantBits();
+      lsb = ((UUID) keyValue).getLeastSignificantBits();
+      name = null;
+    } else {
+      msb = keyValue.hashCode();
+      lsb = 0;
+      name = keyValue;
+    }
+    int hash = hash(type, msb, lsb);
+    Segment segment = segmentOf(hash);
+    long stamp = segment.writeLock();
+    try {
+      int slot = segment.slotOf(type, msb, lsb, name, hash);
+      if (slot < 0) {
+        return null;
+      }
+      Object value = segment.references[slot * REFERENCES_PER_SLOT + VALUE];
+      if (expectedValue != null && value != expectedValue) {
+        return null;
+      }
+      segment.delete(slot);
+      segment.size--;
+      return value;
+    } finally {
+      segment.unlockWrite(stamp);
+    }
+  }
+
+  private Segment segmentOf(int hash) {
+    return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+  }
+
+  private static int hash(Class<?> type, long msb, long lsb) {
+    long hash = (msb * 0x9E3779B97F4A7C15L) ^ (lsb * 0xC2B2AE3D27D4EB4FL) ^ type.hashCode();
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private static boolean matches(Object name, Object slotName) {
+    return name == slotName || (name != null && name.equals(slotName));
+  }
+
+  /** A segment of the map, which is its own lock. */
+  @SuppressWarnings("serial")
+  private static final class Segment extends StampedLock {
+    long[] longs;
+    Object[] references;
+    int size;
+
+    Segment(int capacity) {
+      longs = new long[capacity * LONGS_PER_SLOT];
+      references = new Object[capacity * REFERENCES_PER_SLOT];
+    }
+
+    int capacity() {
+      return references.length / REFERENCES_PER_SLOT;
+    }
+
+    /**
+     * Finds the value of the given key. The segment may be modified concurrently while reading it optimistically,
+     * so the arrays are checked to be of the same size, the probing is bounded, and the result is only trusted
+     * once the read is validated.
+     */
+    Object find(Class<?> type, long msb, long lsb, Object name, int hash) {
+      long[] longs = this.longs;
+      Object[] references = this.references;
+      int capacity = references.length / REFERENCES_PER_SLOT;
+      if (longs.length != capacity * LONGS_PER_SLOT) {
+        return null;
+      }
+      int mask = capacity - 1;
+      for (int i = 0, slot = hash & mask; i < capacity; i++, slot = (slot + 1) & mask) {
+        Object slotType = references[slot * REFERENCES_PER_SLOT + TYPE];
+        if (slotType == null) {
+          return null;
+        }
+        if (slotType == type
+            && longs[slot * LONGS_PER_SLOT + MSB] == msb
+            && longs[slot * LONGS_PER_SLOT + LSB] == lsb
+            && matches(name, references[slot * REFERENCES_PER_SLOT + NAME])) {
+          return references[slot * REFERENCES_PER_SLOT + VALUE];
+        }
+      }
+      return null;
+    }
+
+    /** @return the slot of the given key, or the complement of the empty slot where it would be inserted. */
+    int slotOf(Class<?> type, long msb, long lsb, Object name, int hash) {
+      int mask = capacity() - 1;
+      for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+        Object slotType = references[slot * REFERENCES_PER_SLOT + TYPE];
+        if (slotType == null) {
+          return ~slot;
+        }
+        if (slotType == type
+            && longs[slot * LONGS_PER_SLOT + MSB] == msb
+            && longs[slot * LONGS_PER_SLOT + LSB] == lsb
+            && matches(name, references[slot * REFERENCES_PER_SLOT + NAME])) {
+          return slot;
+        }
+      }
+    }
+
+    void set(int slot, Object type, long msb, long lsb, Object name, Object value) {
+      longs[slot * LONGS_PER_SLOT + MSB] = msb;
+      longs[slot * LONGS_PER_SLOT + LSB] = lsb;
+      references[slot * REFERENCES_PER_SLOT + NAME] = name;
+      references[slot * REFERENCES_PER_SLOT + VALUE] = value;
+      references[slot * REFERENCES_PER_SLOT + TYPE] = type;
+    }
+
+    /** Deletes the given slot, shifting back the following entries of its probe sequence. */
+    void delete(int slot) {
+      int mask = capacity() - 1;
+      int hole = slot;
+      for (int next = (hole + 1) & mask; references[next * REFERENCES_PER_SLOT + TYPE] != null;
+           next = (next + 1) & mask) {
+        Class<?> type = (Class<?>) references[next * REFERENCES_PER_SLOT + TYPE];
+        long msb = longs[next * LONGS_PER_SLOT + MSB];
+        long lsb = longs[next * LONGS_PER_SLOT + LSB];
+        int home = hash(type, msb, lsb) & mask;
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          set(hole, type, msb, lsb,
+              references[next * REFERENCES_PER_SLOT + NAME], references[next * REFERENCES_PER_SLOT + VALUE]);
+          hole = next;
+        }
+      }
+      references[hole * REFERENCES_PER_SLOT + TYPE] = null;
+      references[hole * REFERENCES_PER_SLOT + NAME] = null;
+      references[hole * REFERENCES_PER_SLOT + VALUE] = null;
+    }
+
+    void resize(int capacity) {
+      long[] oldLongs = longs;
+      Object[] oldReferences = references;
+      longs = new long[capacity * LONGS_PER_SLOT];
+      references = new Object[capacity * REFERENCES_PER_SLOT];
+      for (int slot = 0; slot < oldReferences.length / REFERENCES_PER_SLOT; slot++) {
+        Class<?> type = (Class<?>) oldReferences[slot * REFERENCES_PER_SLOT + TYPE];
+        if (type != null) {
+          long msb = oldLongs[slot * LONGS_PER_SLOT + MSB];
+          long lsb = oldLongs[slot * LONGS_PER_SLOT + LSB];
+          Object name = oldReferences[slot * REFERENCES_PER_SLOT + NAME];
+          set(~slotOf(type, msb, lsb, name, hash(type, msb, lsb)), type, msb, lsb, name,
+              oldReferences[slot * REFERENCES_PER_SLOT + VALUE]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.LookupResult;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A {@link Flow.Publisher} looking up the keys of an iterator and publishing their results as the lookups
+ * complete, in completion order. Keys are only taken from the iterator when the subscriber has demand for
+ * their results and fewer than the maximum number of lookups are running, so neither the keys nor the
+ * results are buffered beyond that. Supports a single subscriber, which is signalled from the threads
+ * completing the lookups and should not block them.
+ *
+ * @param <K> the type of the keys looked up.
+ * @param <V> the type of the values of the keys.
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class LookupPublisher<K, V> implements Flow.Publisher<LookupResult<K, V>> {
+  private final Iterator<? extends K> keys;
+  private final Function<? super K, ? extends ListenableFuture<? extends V>> lookup;
+  private final int maxInFlight;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  public LookupPublisher(
+      Iterator<? extends K> keys,
+      Function<? super K, ? extends ListenableFuture<? extends V>> lookup,
+      int maxInFlight) {
+    checkArgument(maxInFlight > 0, "maxInFlight must be positive");
+    this.keys = keys;
+    this.lookup = lookup;
+    this.maxInFlight = maxInFlight;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super LookupResult<K, V>> subscriber) {
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {}
+
+        @Override
+        public void cancel() {}
+      });
+      subscriber.onError(new IllegalStateException("LookupPublisher only supports a single subscriber"));
+      return;
+    }
+    LookupSubscription subscription = new LookupSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+  }
+
+  private final class LookupSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super LookupResult<K, V>> subscriber;
+    private final Queue<LookupResult<K, V>> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable requestError;
+
+    // Only accessed by the thread draining.
+    private long emitted;
+    private int inFlight;
+    private boolean exhausted;
+    private boolean terminated;
+
+    LookupSubscription(Flow.Subscriber<? super LookupResult<K, V>> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        requestError = new IllegalArgumentException("The number of results requested must be positive");
+        drain();
+        return;
+      }
+      requested.getAndAccumulate(n, (current, added) -> {
+        long sum = current + added;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+      });
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    /**
+     * Publishes the completed results and starts the lookups the demand allows for. Only one thread drains at a
+     * time, the calls made while another thread drains make it loop once more, including the calls of lookups
+     * completing right away, so that they do not grow the stack.
+     */
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        if (terminated) {
+          completed.clear();
+        } else if (cancelled) {
+          terminated = true;
+          completed.clear();
+        } else if (requestError != null) {
+          terminated = true;
+          completed.clear();
+          subscriber.onError(requestError);
+        } else {
+          drainOnce();
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void drainOnce() {
+      LookupResult<K, V> result;
+      while (!cancelled && emitted < requested.get() && (result = completed.poll()) != null) {
+        inFlight--;
+        emitted++;
+        subscriber.onNext(result);
+      }
+      while (!cancelled && !exhausted && inFlight < maxInFlight && emitted + inFlight < requested.get()) {
+        K key;
+        try {
+          if (!keys.hasNext()) {
+            exhausted = true;
+            break;
+          }
+          key = keys.next();
+        } catch (RuntimeException e) {
+          terminated = true;
+          subscriber.onError(e);
+          return;
+        }
+        inFlight++;
+        start(key);
+      }
+      if (!cancelled && exhausted && inFlight == 0) {
+        terminated = true;
+        subscriber.onComplete();
+      }
+    }
+
+    private void start(K key) {
+      ListenableFuture<? extends V> future;
+      try {
+        future = lookup.apply(key);
+      } catch (RuntimeException e) {
+        future = Futures.immediateFailedFuture(e);
+      }
+      ListenableFuture<? extends V> lookupFuture = future;
+      lookupFuture.addListener(() -> {
+        completed.add(resultOf(key, lookupFuture));
+        drain();
+      }, directExecutor());
+    }
+  }
+
+  private static <K, V> LookupResult<K, V> resultOf(K key, ListenableFuture<? extends V> future) {
+    try {
+      return LookupResult.success(key, Futures.getDone(future));
+    } catch (ExecutionException e) {
+      return LookupResult.failure(key, e.getCause());
+    } catch (RuntimeException e) {
+      return LookupResult.failure(key, e);
+    }
+  }
+}
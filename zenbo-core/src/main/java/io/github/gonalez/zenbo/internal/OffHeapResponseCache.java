@@ -0,0 +1,447 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A default implementation of {@link OffHeapResponseFutureCache}.
+ *
+ * <p>The off-heap tier appends each response as a record {@code [int length][int type][long msb][long lsb][body]}
+ * to a direct buffer used as a ring. The records are found through an open addressing index made of primitive
+ * arrays, keyed by the two longs of the uuid of the request, or of a 128-bit hash for other keys, in which case
+ * the key itself is also stored in the record to tell apart colliding hashes. A record is valid until the ring
+ * wraps around and writes over it, and the index entries of the overwritten records are dropped lazily.
+ *
+ * <p>The body of a record starts with the time its response was put, so that it expires after the same duration
+ * as its on-heap future, promoted responses keeping the time they were first put at.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class OffHeapResponseCache implements OffHeapResponseFutureCache {
+  private static final HashFunction KEY_HASH = Hashing.murmur3_128();
+
+  private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES * 2;
+  private static final int MIN_INDEX_CAPACITY = 16;
+
+  private final Cache<LookupKey, OnHeapEntry> onHeapTier;
+  private final OffHeapTier offHeapTier;
+  private final ImmutableMap<Class<?>, Integer> types;
+  private final ResponseCodec<?>[] codecs;
+  private final long expireAfterWriteNanos;
+  private final Ticker ticker;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  OffHeapResponseCache(DefaultOffHeapResponseCacheBuilder builder) {
+    ImmutableMap<Class<?>, ResponseCodec<?>> codecs = builder.codecs.build();
+    ImmutableMap.Builder<Class<?>, Integer> types = ImmutableMap.builder();
+    this.codecs = new ResponseCodec<?>[codecs.size() + 1];
+    int type = 1;
+    for (Map.Entry<Class<?>, ResponseCodec<?>> entry : codecs.entrySet()) {
+      types.put(entry.getKey(), type);
+      this.codecs[type++] = entry.getValue();
+    }
+    this.types = types.build();
+    this.onHeapTier = CacheBuilder.newBuilder()
+        .maximumSize(builder.onHeapMaximumSize)
+        .build();
+    this.offHeapTier = new OffHeapTier(builder.offHeapCapacity);
+    this.expireAfterWriteNanos = builder.expireAfterWrite != null
+        ? builder.expireAfterWrite.toNanos()
+        : Long.MAX_VALUE;
+    this.ticker = builder.ticker;
+  }
+
+  @Override
+  public <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future) {
+    return put(request, future, Duration.ZERO);
+  }
+
+  @Override
+  public <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future, Duration age) {
+    OnHeapEntry entry = new OnHeapEntry(future, ticker.read() - age.toNanos());
+    onHeapTier.put(request.lookupKey(), entry);
+    future.addListener(() -> onComplete(request, entry), directExecutor());
+    return future;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends Response> ListenableFuture<T> get(Request<T> request) {
+    OnHeapEntry entry = getOnHeapIfFresh(request.lookupKey());
+    ListenableFuture<T> future = entry != null ? (ListenableFuture<T>) entry.future : null;
+    if (future == null) {
+      OffHeapResponse<T> response = readOffHeap(request);
+      if (response != null) {
+        future = Futures.immediateFuture(response.response);
+        // Promoted with the time it was first put at, so it does not outlive its expiration.
+        onHeapTier.put(request.lookupKey(), new OnHeapEntry(future, response.writtenAtNanos));
+      }
+    }
+    if (future == null) {
+      missCount.increment();
+      return Futures.immediateFuture(null);
+    }
+    hitCount.increment();
+    return future;
+  }
+
+  @Override
+  public <T extends Response> void remove(Request<T> request) {
+    onHeapTier.invalidate(request.lookupKey());
+    Key key = key(request);
+    if (key != null) {
+      offHeapTier.remove(key);
+    }
+  }
+
+  @Override
+  public <T extends Response> boolean contains(Request<T> request) {
+    return getOnHeapIfFresh(request.lookupKey()) != null || readOffHeap(request) != null;
+  }
+
+  @Override
+  public ResponseFutureCacheStats stats() {
+    return ImmutableResponseFutureCacheStats.builder()
+        .hitCount(hitCount.sum())
+        .missCount(missCount.sum())
+        .evictionCount(evictionCount.sum())
+        .build();
+  }
+
+  private OnHeapEntry getOnHeapIfFresh(LookupKey key) {
+    OnHeapEntry entry = onHeapTier.getIfPresent(key);
+    if (entry != null && isExpired(entry.writtenAtNanos)) {
+      if (onHeapTier.asMap().remove(key, entry)) {
+        evictionCount.increment();
+      }
+      return null;
+    }
+    return entry;
+  }
+
+  private boolean isExpired(long writtenAtNanos) {
+    return expireAfterWriteNanos != Long.MAX_VALUE && ticker.read() - writtenAtNanos >= expireAfterWriteNanos;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends Response> void onComplete(Request<T> request, OnHeapEntry entry) {
+    ListenableFuture<T> future = (ListenableFuture<T>) entry.future;
+    if (!Responses.isCacheableResult(future)) {
+      onHeapTier.asMap().remove(request.lookupKey(), entry);
+      return;
+    }
+    Key key = key(request);
+    if (key == null) {
+      return;
+    }
+    T response;
+    try {
+      response = Futures.getDone(future);
+    } catch (Exception e) {
+      // Negative entries are only kept on-heap.
+      return;
+    }
+    if (response == null) {
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    ResponseCodec<T> codec = (ResponseCodec<T>) codecs[key.type];
+    try {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(body);
+      if (key.name != null) {
+        output.writeUTF(key.name);
+      }
+      output.writeLong(entry.writtenAtNanos);
+      codec.encode(response, output);
+      offHeapTier.write(key, body.toByteArray());
+    } catch (IOException e) {
+      // Encoding to memory only fails for responses the codec cannot represent, which stay on-heap.
+    }
+  }
+
+  private <T extends Response> OffHeapResponse<T> readOffHeap(Request<T> request) {
+    Key key = key(request);
+    if (key == null) {
+      return null;
+    }
+    byte[] body = offHeapTier.read(key);
+    if (body == null) {
+      return null;
+    }
+    try {
+      DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+      if (key.name != null && !key.name.equals(input.readUTF())) {
+        return null;
+      }
+      long writtenAtNanos = input.readLong();
+      if (isExpired(writtenAtNanos)) {
+        offHeapTier.remove(key);
+        evictionCount.increment();
+        return null;
+      }
+      @SuppressWarnings("unchecked")
+      ResponseCodec<T> codec = (ResponseCodec<T>) codecs[key.type];
+      return new OffHeapResponse<>(codec.decode(input), writtenAtNanos);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /** @return the off-heap key of the given request, or {@code null} if its responses are not stored off-heap. */
+  private Key key(Request<?> request) {
+    LookupKey lookupKey = request.lookupKey();
+    Integer type = types.get(lookupKey.requestType());
+    if (type == null) {
+      return null;
+    }
+    Object value = lookupKey.value();
+    if (value instanceof UUID) {
+      UUID uuid = (UUID) value;
+      return new Key(type, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null);
+    }
+    String name = value.toString();
+    ByteBuffer hash = ByteBuffer.wrap(KEY_HASH.hashString(name, StandardCharsets.UTF_8).asBytes());
+    return new Key(type, hash.getLong(0), hash.getLong(Long.BYTES), name);
+  }
+
+  private static final class OnHeapEntry {
+    final ListenableFuture<?> future;
+    final long writtenAtNanos;
+
+    OnHeapEntry(ListenableFuture<?> future, long writtenAtNanos) {
+      this.future = future;
+      this.writtenAtNanos = writtenAtNanos;
+    }
+  }
+
+  /** A response decoded from the off-heap tier, along with the time it was put at. */
+  private static final class OffHeapResponse<T> {
+    final T response;
+    final long writtenAtNanos;
+
+    OffHeapResponse(T response, long writtenAtNanos) {
+      this.response = response;
+      this.writtenAtNanos = writtenAtNanos;
+    }
+  }
+
+  private static final class Key {
+    final int type;
+    final long msb;
+    final long lsb;
+    /** The key as a string if it is not a uuid, also stored in the record. */
+    final String name;
+
+    Key(int type, long msb, long lsb, String name) {
+      this.type = type;
+      this.msb = msb;
+      this.lsb = lsb;
+      this.name = name;
+    }
+  }
+
+  /** The ring of records along with its index, all its accesses are guarded by its lock. */
+  private final class OffHeapTier {
+    private final ByteBuffer buffer;
+    private final int capacity;
+
+    /** The total number of bytes ever written to the ring, the next record is written at this modulo the capacity. */
+    private long writePosition;
+
+    // The index, where a zero type marks an empty slot.
+    private int[] indexTypes;
+    private long[] indexMsbs;
+    private long[] indexLsbs;
+    private long[] indexPositions;
+    private int indexSize;
+
+    OffHeapTier(int capacity) {
+      this.buffer = ByteBuffer.allocateDirect(capacity);
+      this.capacity = capacity;
+      allocateIndex(MIN_INDEX_CAPACITY);
+    }
+
+    synchronized void write(Key key, byte[] body) {
+      int recordLength = HEADER_SIZE + body.length;
+      if (recordLength > capacity) {
+        return;
+      }
+      long position = writePosition;
+      int offset = (int) (position % capacity);
+      if (offset + recordLength > capacity) {
+        // Records do not wrap around, the rest of the ring is skipped.
+        position += capacity - offset;
+        offset = 0;
+      }
+      buffer.putInt(offset, body.length);
+      buffer.putInt(offset + Integer.BYTES, key.type);
+      buffer.putLong(offset + Integer.BYTES * 2, key.msb);
+      buffer.putLong(offset + Integer.BYTES * 2 + Long.BYTES, key.lsb);
+      ByteBuffer destination = buffer.duplicate();
+      destination.position(offset + HEADER_SIZE);
+      destination.put(body);
+      writePosition = position + recordLength;
+
+      int slot = find(key);
+      if (slot < 0) {
+        if ((indexSize + 1) * 2 > indexTypes.length) {
+          rehash();
+        }
+        slot = ~find(key);
+        indexTypes[slot] = key.type;
+        indexMsbs[slot] = key.msb;
+        indexLsbs[slot] = key.lsb;
+        indexSize++;
+      }
+      indexPositions[slot] = position;
+    }
+
+    synchronized byte[] read(Key key) {
+      int slot = find(key);
+      if (slot < 0) {
+        return null;
+      }
+      long position = indexPositions[slot];
+      if (!isValid(position)) {
+        delete(slot);
+        evictionCount.increment();
+        return null;
+      }
+      int offset = (int) (position % capacity);
+      byte[] body = new byte[buffer.getInt(offset)];
+      ByteBuffer source = buffer.duplicate();
+      source.position(offset + HEADER_SIZE);
+      source.get(body);
+      return body;
+    }
+
+    synchronized void remove(Key key) {
+      int slot = find(key);
+      if (slot >= 0) {
+        delete(slot);
+      }
+    }
+
+    /** @return whether the record at the given position was not written over yet. */
+    private boolean isValid(long position) {
+      return writePosition - position <= capacity;
+    }
+
+    /** @return the slot of the given key, or the complement of the empty slot where it would be inserted. */
+    private int find(Key key) {
+      int mask = indexTypes.length - 1;
+      for (int slot = slotOf(key.type, key.msb, key.lsb, mask); ; slot = (slot + 1) & mask) {
+        if (indexTypes[slot] == 0) {
+          return ~slot;
+        }
+        if (indexTypes[slot] == key.type && indexMsbs[slot] == key.msb && indexLsbs[slot] == key.lsb) {
+          return slot;
+        }
+      }
+    }
+
+    /** Deletes the given slot, shifting back the following entries of its probe sequence. */
+    private void delete(int slot) {
+      int mask = indexTypes.length - 1;
+      int hole = slot;
+      for (int next = (hole + 1) & mask; indexTypes[next] != 0; next = (next + 1) & mask) {
+        int home = slotOf(indexTypes[next], indexMsbs[next], indexLsbs[next], mask);
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          indexTypes[hole] = indexTypes[next];
+          indexMsbs[hole] = indexMsbs[next];
+          indexLsbs[hole] = indexLsbs[next];
+          indexPositions[hole] = indexPositions[next];
+          hole = next;
+        }
+      }
+      indexTypes[hole] = 0;
+      indexSize--;
+    }
+
+    /** Rebuilds the index without the overwritten records, growing it if still more than a quarter full. */
+    private void rehash() {
+      int[] types = indexTypes;
+      long[] msbs = indexMsbs;
+      long[] lsbs = indexLsbs;
+      long[] positions = indexPositions;
+      int liveCount = 0;
+      for (int slot = 0; slot < types.length; slot++) {
+        if (types[slot] != 0 && isValid(positions[slot])) {
+          liveCount++;
+        }
+      }
+      int indexCapacity = MIN_INDEX_CAPACITY;
+      while (indexCapacity < liveCount * 4) {
+        indexCapacity <<= 1;
+      }
+      allocateIndex(indexCapacity);
+      int mask = indexCapacity - 1;
+      for (int slot = 0; slot < types.length; slot++) {
+        if (types[slot] == 0) {
+          continue;
+        }
+        if (!isValid(positions[slot])) {
+          evictionCount.increment();
+          continue;
+        }
+        int newSlot = slotOf(types[slot], msbs[slot], lsbs[slot], mask);
+        while (indexTypes[newSlot] != 0) {
+          newSlot = (newSlot + 1) & mask;
+        }
+        indexTypes[newSlot] = types[slot];
+        indexMsbs[newSlot] = msbs[slot];
+        indexLsbs[newSlot] = lsbs[slot];
+        indexPositions[newSlot] = positions[slot];
+      }
+      indexSize = liveCount;
+    }
+
+    private void allocateIndex(int indexCapacity) {
+      indexTypes = new int[indexCapacity];
+      indexMsbs = new long[indexCapacity];
+      indexLsbs = new long[indexCapacity];
+      indexPositions = new long[indexCapacity];
+    }
+
+    private int slotOf(int type, long msb, long lsb, int mask) {
+      long hash = (msb ^ Long.rotateLeft(lsb, 32) ^ type) * 0x9E3779B97F4A7C15L;
+      return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+  }
+}
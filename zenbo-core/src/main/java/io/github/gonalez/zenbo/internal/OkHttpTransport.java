@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.HttpTransport;
+import io.github.gonalez.zenbo.TransportRequest;
+import io.github.gonalez.zenbo.TransportResponse;
+import okhttp3.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * A {@link HttpTransport} backed by an {@link OkHttpClient}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class OkHttpTransport implements HttpTransport {
+  private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+
+  private final OkHttpClient httpClient;
+  private final boolean async;
+
+  public OkHttpTransport(OkHttpClient httpClient, boolean async) {
+    this.httpClient = httpClient;
+    this.async = async;
+  }
+
+  @Override
+  public ListenableFuture<TransportResponse> execute(TransportRequest request) {
+    Call call = httpClient.newCall(toOkHttpRequest(request));
+    if (!async) {
+      try {
+        return Futures.immediateFuture(new OkHttpTransportResponse(call.execute()));
+      } catch (IOException e) {
+        return Futures.immediateFailedFuture(e);
+      }
+    }
+    SettableFuture<TransportResponse> future = SettableFuture.create();
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(Call call, IOException e) {
+        future.setException(e);
+      }
+
+      @Override
+      public void onResponse(Call call, Response response) {
+        if (!future.set(new OkHttpTransportResponse(response))) {
+          response.close();
+        }
+      }
+    });
+    future.addListener(() -> {
+      if (future.isCancelled()) {
+        call.cancel();
+      }
+    }, directExecutor());
+    return future;
+  }
+
+  private static Request toOkHttpRequest(TransportRequest request) {
+    Request.Builder builder = new Request.Builder().url(request.url());
+    request.jsonBody().ifPresent(jsonBody -> builder.post(RequestBody.create(jsonBody, JSON_MEDIA_TYPE)));
+    return builder.build();
+  }
+
+  private static final class OkHttpTransportResponse implements TransportResponse {
+    private final Response response;
+
+    OkHttpTransportResponse(Response response) {
+      this.response = response;
+    }
+
+    @Override
+    public int code() {
+      return response.code();
+    }
+
+    @Override
+    public Optional<String> header(String name) {
+      return Optional.ofNullable(response.header(name));
+    }
+
+    @Override
+    public InputStream body() {
+      return response.body().byteStream();
+    }
+
+    @Override
+    public void close() {
+      response.close();
+    }
+  }
+}
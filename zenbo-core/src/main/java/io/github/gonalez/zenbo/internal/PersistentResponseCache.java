@@ -0,0 +1,424 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.gonalez.zenbo.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link PersistentResponseFutureCache} storing the responses in an append-only log file.
+ *
+ * <p>Each record of the log is {@code [int length][int crc32][byte operation][utf key][long written at][response]},
+ * where the key identifies the {@link LookupKey} of the request and the response is encoded by the codec
+ * registered for its type. A later record for the same key replaces the previous one, and the log is
+ * rewritten with only the live records once most of it is made of replaced ones. An in-memory index maps each
+ * key to the position of its record, so lookups read a single record from the file.
+ *
+ * <p>All the writes happen on a single background thread and are synced to the storage device periodically,
+ * so the lookups never wait for them.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see PersistentResponseFutureCache#newBuilder()
+ */
+public class PersistentResponseCache implements PersistentResponseFutureCache {
+  private static final Logger logger = Logger.getLogger(PersistentResponseCache.class.getName());
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+  /** The log is only compacted once it is at least this big, and more than half of it are replaced records. */
+  private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+  private final Path file;
+  private final ResponseFutureCache memoryCache;
+  private final ImmutableMap<Class<?>, ResponseCodec<?>> codecs;
+  private final long expireAfterWriteMillis;
+  private final ScheduledExecutorService writer;
+
+  private volatile Log log;
+
+  // Only accessed from the writer thread.
+  private long fileSize;
+  private long liveBytes;
+  private boolean dirty;
+
+  PersistentResponseCache(DefaultPersistentResponseCacheBuilder builder) throws IOException {
+    this.file = builder.file;
+    this.memoryCache = builder.memoryCache != null ? builder.memoryCache : new DefaultResponseCache();
+    this.codecs = builder.codecs.build();
+    this.expireAfterWriteMillis = builder.expireAfterWrite != null
+        ? builder.expireAfterWrite.toMillis()
+        : Long.MAX_VALUE;
+    this.log = load();
+    this.writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("zenbo-persistent-cache-%d")
+        .build());
+    long syncIntervalMillis = builder.syncInterval.toMillis();
+    writer.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public <T extends Response> ListenableFuture<T> put(Request<T> request, ListenableFuture<T> future) {
+    memoryCache.put(request, future);
+    ResponseCodec<T> codec = codec(request);
+    if (codec != null) {
+      String key = key(request);
+      Futures.addCallback(future, new FutureCallback<T>() {
+        @Override
+        public void onSuccess(T result) {
+          if (result != null) {
+            writer.execute(() -> writePut(key, result, codec));
+          }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {}
+      }, directExecutor());
+    }
+    return future;
+  }
+
+  @Override
+  public <T extends Response> ListenableFuture<T> get(Request<T> request) {
+    ListenableFuture<T> future = Responses.getCachedOrNull(memoryCache, request);
+    ResponseCodec<T> codec = codec(request);
+    if (future != null || codec == null) {
+      return future != null ? future : Futures.immediateFuture(null);
+    }
+    StoredResponse<T> stored = read(key(request), codec);
+    if (stored == null) {
+      return Futures.immediateFuture(null);
+    }
+    // Promoted with its original write time, so it does not outlive its expiration on disk.
+    return memoryCache.put(request, Futures.immediateFuture(stored.response),
+        Duration.ofMillis(Math.max(0, System.currentTimeMillis() - stored.writtenAtMillis)));
+  }
+
+  @Override
+  public <T extends Response> void remove(Request<T> request) {
+    memoryCache.remove(request);
+    if (codec(request) != null) {
+      String key = key(request);
+      writer.execute(() -> writeRemove(key));
+    }
+  }
+
+  @Override
+  public <T extends Response> boolean contains(Request<T> request) {
+    return memoryCache.contains(request)
+        || (codec(request) != null && log.index.containsKey(key(request)));
+  }
+
+  @Override
+  public <T extends Response> boolean claimRefresh(Request<T> request) {
+    return memoryCache.claimRefresh(request);
+  }
+
+  @Override
+  public ResponseFutureCacheStats stats() {
+    return memoryCache.stats();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while writing the pending responses");
+    }
+    synchronized (log.file) {
+      log.file.getFD().sync();
+      log.file.close();
+    }
+  }
+
+  private <T extends Response> StoredResponse<T> read(String key, ResponseCodec<T> codec) {
+    // Retried once, since a compaction may replace the log while reading from it.
+    for (int attempt = 0; attempt < 2; attempt++) {
+      Log log = this.log;
+      RecordPointer pointer = log.index.get(key);
+      if (pointer == null) {
+        return null;
+      }
+      try {
+        byte[] record = new byte[pointer.length];
+        synchronized (log.file) {
+          log.file.seek(pointer.offset);
+          log.file.readFully(record);
+        }
+        DataInputStream input = openRecord(record);
+        if (input.readByte() != PUT || !input.readUTF().equals(key)) {
+          return null;
+        }
+        long writtenAtMillis = input.readLong();
+        if (isExpired(writtenAtMillis)) {
+          writer.execute(() -> dropExpired(key, pointer));
+          return null;
+        }
+        return new StoredResponse<>(codec.decode(input), writtenAtMillis);
+      } catch (IOException e) {
+        if (log == this.log) {
+          logger.log(Level.WARNING, "Failed to read response " + key + " from " + file, e);
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+
+  private <T extends Response> void writePut(String key, T response, ResponseCodec<T> codec) {
+    try {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(body);
+      output.writeByte(PUT);
+      output.writeUTF(key);
+      output.writeLong(System.currentTimeMillis());
+      codec.encode(response, output);
+      RecordPointer pointer = append(body.toByteArray());
+      RecordPointer previous = log.index.put(key, pointer);
+      liveBytes += pointer.length - (previous != null ? previous.length : 0);
+      compactIfNeeded();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to write response " + key + " to " + file, e);
+    }
+  }
+
+  private void writeRemove(String key) {
+    if (!log.index.containsKey(key)) {
+      return;
+    }
+    try {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(body);
+      output.writeByte(REMOVE);
+      output.writeUTF(key);
+      append(body.toByteArray());
+      RecordPointer previous = log.index.remove(key);
+      if (previous != null) {
+        liveBytes -= previous.length;
+      }
+      compactIfNeeded();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to remove response " + key + " from " + file, e);
+    }
+  }
+
+  /** Drops the given expired record from the index, unless it was replaced since it was read. */
+  private void dropExpired(String key, RecordPointer pointer) {
+    if (!log.index.remove(key, pointer)) {
+      return;
+    }
+    liveBytes -= pointer.length;
+    try {
+      compactIfNeeded();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to compact " + file, e);
+    }
+  }
+
+  private RecordPointer append(byte[] body) throws IOException {
+    CRC32 crc32 = new CRC32();
+    crc32.update(body);
+    ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + body.length)
+        .putInt(body.length)
+        .putInt((int) crc32.getValue())
+        .put(body);
+    RecordPointer pointer = new RecordPointer(fileSize, record.capacity());
+    synchronized (log.file) {
+      log.file.seek(fileSize);
+      log.file.write(record.array());
+    }
+    fileSize += record.capacity();
+    dirty = true;
+    return pointer;
+  }
+
+  private void sync() {
+    if (!dirty) {
+      return;
+    }
+    try {
+      log.file.getFD().sync();
+      dirty = false;
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to sync " + file, e);
+    }
+  }
+
+  private void compactIfNeeded() throws IOException {
+    if (fileSize < MIN_COMPACTION_SIZE || liveBytes * 2 > fileSize) {
+      return;
+    }
+    Log log = this.log;
+    Path compactedFile = file.resolveSibling(file.getFileName() + ".compact");
+    ConcurrentHashMap<String, RecordPointer> index = new ConcurrentHashMap<>();
+    long position = 0;
+    try (FileOutputStream fileOutput = new FileOutputStream(compactedFile.toFile())) {
+      BufferedOutputStream output = new BufferedOutputStream(fileOutput);
+      for (Map.Entry<String, RecordPointer> entry : log.index.entrySet()) {
+        RecordPointer pointer = entry.getValue();
+        byte[] record = new byte[pointer.length];
+        synchronized (log.file) {
+          log.file.seek(pointer.offset);
+          log.file.readFully(record);
+        }
+        DataInputStream input = openRecord(record);
+        input.readByte();
+        input.readUTF();
+        if (isExpired(input.readLong())) {
+          continue;
+        }
+        output.write(record);
+        index.put(entry.getKey(), new RecordPointer(position, record.length));
+        position += record.length;
+      }
+      output.flush();
+      fileOutput.getFD().sync();
+    }
+    Files.move(compactedFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    this.log = new Log(new RandomAccessFile(file.toFile(), "rw"), index);
+    synchronized (log.file) {
+      log.file.close();
+    }
+    fileSize = position;
+    liveBytes = position;
+    dirty = false;
+  }
+
+  /** Reads the index of the existing log, dropping the records after the first incomplete or corrupted one. */
+  private Log load() throws IOException {
+    ConcurrentHashMap<String, RecordPointer> index = new ConcurrentHashMap<>();
+    long position = 0;
+    if (Files.exists(file)) {
+      try (DataInputStream input = new DataInputStream(
+          new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+        long size = Files.size(file);
+        while (position + HEADER_SIZE <= size) {
+          int length = input.readInt();
+          int crc = input.readInt();
+          if (length <= 0 || position + HEADER_SIZE + length > size) {
+            break;
+          }
+          byte[] body = new byte[length];
+          input.readFully(body);
+          CRC32 crc32 = new CRC32();
+          crc32.update(body);
+          if ((int) crc32.getValue() != crc) {
+            break;
+          }
+          DataInputStream bodyInput = new DataInputStream(new ByteArrayInputStream(body));
+          byte operation = bodyInput.readByte();
+          String key = bodyInput.readUTF();
+          // Expired records are dropped like removed ones.
+          boolean live = operation == PUT && !isExpired(bodyInput.readLong());
+          RecordPointer pointer = new RecordPointer(position, HEADER_SIZE + length);
+          RecordPointer previous = live ? index.put(key, pointer) : index.remove(key);
+          if (previous != null) {
+            liveBytes -= previous.length;
+          }
+          if (live) {
+            liveBytes += pointer.length;
+          }
+          position += pointer.length;
+        }
+      }
+    }
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw");
+    if (randomAccessFile.length() > position) {
+      randomAccessFile.setLength(position);
+    }
+    fileSize = position;
+    return new Log(randomAccessFile, index);
+  }
+
+  private boolean isExpired(long writtenAtMillis) {
+    return expireAfterWriteMillis != Long.MAX_VALUE
+        && System.currentTimeMillis() - writtenAtMillis >= expireAfterWriteMillis;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends Response> ResponseCodec<T> codec(Request<T> request) {
+    return (ResponseCodec<T>) codecs.get(request.lookupKey().requestType());
+  }
+
+  private static String key(Request<?> request) {
+    LookupKey lookupKey = request.lookupKey();
+    return lookupKey.requestType().getName() + ':' + lookupKey.value();
+  }
+
+  /** @return an input positioned after the header of the given record. */
+  private static DataInputStream openRecord(byte[] record) {
+    return new DataInputStream(new ByteArrayInputStream(record, HEADER_SIZE, record.length - HEADER_SIZE));
+  }
+
+  /** An open log file along with the index of its live records. */
+  private static final class Log {
+    final RandomAccessFile file;
+    final ConcurrentHashMap<String, RecordPointer> index;
+
+    Log(RandomAccessFile file, ConcurrentHashMap<String, RecordPointer> index) {
+      this.file = file;
+      this.index = index;
+    }
+  }
+
+  /** A response read from the log, along with the time it was written at. */
+  private static final class StoredResponse<T> {
+    final T response;
+    final long writtenAtMillis;
+
+    StoredResponse(T response, long writtenAtMillis) {
+      this.response = response;
+      this.writtenAtMillis = writtenAtMillis;
+    }
+  }
+
+  private static final class RecordPointer {
+    final long offset;
+    final int length;
+
+    RecordPointer(long offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import com.google.common.util.concurrent.AsyncCallable;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.Request.Priority;
+import io.github.gonalez.zenbo.RequestScheduler;
+
+import java.util.EnumMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link RequestScheduler} with a {@link ConcurrencyLimiter} per priority. Requests that can run right away
+ * run on the calling thread, and the queued ones are moved to the executor once they can run.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+final class PriorityRequestScheduler implements RequestScheduler {
+  private final EnumMap<Priority, ConcurrencyLimiter> limiters = new EnumMap<>(Priority.class);
+  private final Executor executor;
+
+  PriorityRequestScheduler(DefaultRequestSchedulerBuilder builder) {
+    for (Priority priority : Priority.values()) {
+      limiters.put(priority, new ConcurrencyLimiter(
+          builder.maxConcurrentRequests.get(priority), builder.maxQueuedRequests.get(priority)));
+    }
+    this.executor = builder.executor;
+  }
+
+  @Override
+  public <T> ListenableFuture<T> schedule(Priority priority, AsyncCallable<T> task) {
+    return limiters.get(priority).submit(task, executor);
+  }
+
+  @Override
+  public int runningCount(Priority priority) {
+    return limiters.get(priority).runningCount();
+  }
+
+  @Override
+  public int queuedCount(Priority priority) {
+    return limiters.get(priority).pendingCount();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import io.github.gonalez.zenbo.RateLimiter;
+
+import java.time.Duration;
+
+/**
+ * A {@link RateLimiter} refilling a bucket of permits at a steady rate. Reservations may take the bucket
+ * below zero, in which case the wait of each one grows with the permits owed before it.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+  private final Ticker ticker;
+  private final int capacity;
+  private final double nanosPerPermit;
+
+  private double permits;
+  private long lastRefillNanos;
+  private long pausedUntilNanos;
+
+  public TokenBucketRateLimiter(int capacity, Duration refillPeriod) {
+    this(capacity, refillPeriod, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  TokenBucketRateLimiter(int capacity, Duration refillPeriod, Ticker ticker) {
+    checkArgument(capacity > 0, "capacity must be positive");
+    checkArgument(!refillPeriod.isNegative() && !refillPeriod.isZero(), "refillPeriod must be positive");
+    this.ticker = ticker;
+    this.capacity = capacity;
+    this.nanosPerPermit = (double) refillPeriod.toNanos() / capacity;
+    this.permits = capacity;
+    this.lastRefillNanos = ticker.read();
+    this.pausedUntilNanos = lastRefillNanos;
+  }
+
+  @Override
+  public synchronized long reserve() {
+    long now = ticker.read();
+    permits = Math.min(capacity, permits + (now - lastRefillNanos) / nanosPerPermit);
+    lastRefillNanos = now;
+    permits -= 1;
+    long waitNanos = permits >= 0 ? 0 : (long) Math.ceil(-permits * nanosPerPermit);
+    return Math.max(waitNanos, pausedUntilNanos - now);
+  }
+
+  @Override
+  public synchronized void pause(Duration duration) {
+    pausedUntilNanos = Math.max(pausedUntilNanos, ticker.read() + duration.toNanos());
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * A {@link Reader} decoding UTF-8 bytes with a small buffer, as the buffers of {@link java.io.InputStreamReader}
+ * outweigh the small json bodies of the Mojang APIs. Each byte of malformed input is replaced with {@code U+FFFD}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class Utf8Reader extends Reader {
+  private static final int BUFFER_SIZE = 512;
+  private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+  /** The smallest code point that can be encoded with each sequence length, to reject overlong encodings. */
+  private static final int[] MIN_CODE_POINTS = {0, 0, 0x80, 0x800, 0x10000};
+
+  private final InputStream inputStream;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private boolean endOfStream;
+
+  /** The low surrogate of a supplementary code point that did not fit in the previous read. */
+  private char pendingLowSurrogate;
+
+  public Utf8Reader(InputStream inputStream) {
+    this.inputStream = inputStream;
+  }
+
+  @Override
+  public int read(char[] chars, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    int read = 0;
+    if (pendingLowSurrogate != 0) {
+      chars[offset + read++] = pendingLowSurrogate;
+      pendingLowSurrogate = 0;
+    }
+    while (read < length) {
+      if (position == limit && (read > 0 || !fill(1))) {
+        break;
+      }
+      int b = buffer[position];
+      if (b >= 0) {
+        chars[offset + read++] = (char) b;
+        position++;
+        continue;
+      }
+      int sequenceLength = sequenceLength(b);
+      if (sequenceLength == 0 || !fill(sequenceLength)) {
+        chars[offset + read++] = REPLACEMENT_CHARACTER;
+        position++;
+        continue;
+      }
+      int codePoint = decode(sequenceLength);
+      if (codePoint < 0) {
+        chars[offset + read++] = REPLACEMENT_CHARACTER;
+        position++;
+        continue;
+      }
+      position += sequenceLength;
+      if (Character.isBmpCodePoint(codePoint)) {
+        chars[offset + read++] = (char) codePoint;
+      } else {
+        chars[offset + read++] = Character.highSurrogate(codePoint);
+        if (read < length) {
+          chars[offset + read++] = Character.lowSurrogate(codePoint);
+        } else {
+          pendingLowSurrogate = Character.lowSurrogate(codePoint);
+        }
+      }
+    }
+    return read == 0 ? -1 : read;
+  }
+
+  @Override
+  public void close() throws IOException {
+    inputStream.close();
+  }
+
+  /** Ensures at least the given number of bytes are buffered, returns {@code false} if the stream ended before. */
+  private boolean fill(int minimum) throws IOException {
+    if (limit - position >= minimum) {
+      return true;
+    }
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    while (limit < minimum && !endOfStream) {
+      int read = inputStream.read(buffer, limit, buffer.length - limit);
+      if (read == -1) {
+        endOfStream = true;
+      } else {
+        limit += read;
+      }
+    }
+    return limit >= minimum;
+  }
+
+  /** @return the code point of the buffered sequence, or {@code -1} if it is malformed. */
+  private int decode(int sequenceLength) {
+    int codePoint = buffer[position] & (0xff >> (sequenceLength + 1));
+    for (int i = 1; i < sequenceLength; i++) {
+      int b = buffer[position + i];
+      if ((b & 0xc0) != 0x80) {
+        return -1;
+      }
+      codePoint = (codePoint << 6) | (b & 0x3f);
+    }
+    if (codePoint < MIN_CODE_POINTS[sequenceLength]
+        || codePoint > Character.MAX_CODE_POINT
+        || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+      return -1;
+    }
+    return codePoint;
+  }
+
+  private static int sequenceLength(int leadingByte) {
+    if ((leadingByte & 0xe0) == 0xc0) {
+      return 2;
+    } else if ((leadingByte & 0xf0) == 0xe0) {
+      return 3;
+    } else if ((leadingByte & 0xf8) == 0xf0) {
+      return 4;
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Static methods to work with virtual threads, which are looked up reflectively as they are only
+ * available since Java 21. On Java 19 and 20 they are a preview API, which is not used.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class VirtualThreads {
+  private VirtualThreads() {}
+
+  private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+  /** @return {@code true} if the running Java version supports virtual threads. */
+  public static boolean isAvailable() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  /** @return an executor that starts a new virtual thread for each task, if virtual threads are available. */
+  public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+    if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of((ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact());
+    } catch (UnsupportedOperationException e) {
+      // Preview features are disabled.
+      return Optional.empty();
+    } catch (Throwable throwable) {
+      throw new IllegalStateException("Failed to create virtual thread executor", throwable);
+    }
+  }
+
+  private static MethodHandle findNewVirtualThreadPerTaskExecutor() {
+    if (Runtime.version().feature() < 21) {
+      return null;
+    }
+    try {
+      return MethodHandles.publicLookup().findStatic(Executors.class,
+          "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+}
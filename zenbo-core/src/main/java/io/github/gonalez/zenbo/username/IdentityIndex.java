@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import com.google.common.base.Ticker;
+import io.github.gonalez.zenbo.username.internal.DefaultIdentityIndexBuilder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Indexes the identities of the players seen in the responses of all the lookups, so that a username or
+ * uuid learned from one type of response answers the lookups of the others without a network call. The
+ * index is kept consistent as players change their names, a name maps to a single uuid and a uuid to a
+ * single current name.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see UsernameApi.Builder#identityIndex(IdentityIndex)
+ */
+public interface IdentityIndex {
+  /** @return a new {@link IdentityIndex} builder. */
+  static Builder newBuilder() {
+    return new DefaultIdentityIndexBuilder();
+  }
+
+  /** @return the uuid of the player currently using the given username, compared ignoring case. */
+  Optional<UUID> uuidOf(String username);
+
+  /** @return the current username of the given uuid. */
+  Optional<String> usernameOf(UUID uuid);
+
+  /** @return the name history of the given uuid. */
+  Optional<UuidToNameHistoryResponse> nameHistoryOf(UUID uuid);
+
+  /** Records that the given username, compared ignoring case, is currently used by the given uuid. */
+  void recordUsername(String username, UUID uuid);
+
+  /** Records that the given username, with its exact case, is the current username of the given uuid. */
+  void recordProfile(UUID uuid, String username);
+
+  /**
+   * Records the name history of the given uuid, along with its
+   * {@link UuidToNameHistoryResponse#currentUsername() current username}.
+   */
+  void recordNameHistory(UUID uuid, UuidToNameHistoryResponse nameHistory);
+
+  /** Builder to create {@link IdentityIndex}s. */
+  interface Builder {
+    /** Sets the maximum number of entries of each mapping of the index, by default 100,000. */
+    Builder maximumSize(long maximumSize);
+
+    /**
+     * Sets how long the recorded identities are kept, as players can change their names. By default
+     * 10 minutes.
+     */
+    Builder expireAfterWrite(Duration duration);
+
+    /** Sets the ticker used to expire the identities. */
+    Builder ticker(Ticker ticker);
+
+    /** @return a new {@link IdentityIndex} from this builder. */
+    IdentityIndex build();
+  }
+}
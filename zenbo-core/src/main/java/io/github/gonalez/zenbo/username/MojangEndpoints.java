@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.immutables.value.Value;
+
+import java.util.UUID;
+
+/**
+ * Represents the base urls the {@link UsernameApi} sends its requests to, so that they can target a mirror
+ * or a caching proxy of the Mojang API instead. The paths of the endpoints are appended to them as they
+ * are in the Mojang API.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface MojangEndpoints {
+  /** @return the endpoints of the Mojang API. */
+  static MojangEndpoints mojang() {
+    return ImmutableMojangEndpoints.builder().build();
+  }
+
+  /** @return endpoints sending the requests of both the api and session server to the given base url. */
+  static MojangEndpoints of(String baseUrl) {
+    return ImmutableMojangEndpoints.builder()
+        .apiBaseUrl(baseUrl)
+        .sessionServerBaseUrl(baseUrl)
+        .build();
+  }
+
+  /** @return the base url of the username and name history endpoints. */
+  @Value.Default
+  default String apiBaseUrl() {
+    return "https://api.mojang.com";
+  }
+
+  /** @return the base url of the profile endpoint. */
+  @Value.Default
+  default String sessionServerBaseUrl() {
+    return "https://sessionserver.mojang.com";
+  }
+
+  @Value.Check
+  default void check() {
+    checkState(!apiBaseUrl().endsWith("/"), "apiBaseUrl must not end with a slash");
+    checkState(!sessionServerBaseUrl().endsWith("/"), "sessionServerBaseUrl must not end with a slash");
+  }
+
+  /** @return the url of the username to uuid endpoint for the given username. */
+  default String usernameToUuidUrl(String username) {
+    return apiBaseUrl() + "/users/profiles/minecraft/" + username;
+  }
+
+  /** @return the url of the bulk usernames to uuids endpoint. */
+  default String usernamesToUuidsUrl() {
+    return apiBaseUrl() + "/profiles/minecraft";
+  }
+
+  /** @return the url of the name history endpoint for the given uuid. */
+  default String uuidToNameHistoryUrl(UUID uuid) {
+    return apiBaseUrl() + "/user/profiles/" + StringUuids.toUndashedString(uuid) + "/names";
+  }
+
+  /** @return the url of the profile and skin/cape endpoint for the given uuid. */
+  default String uuidToProfileAndSkinCapeUrl(UUID uuid) {
+    return sessionServerBaseUrl() + "/session/minecraft/profile/" + StringUuids.toUndashedString(uuid);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.immutables.value.Value;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Represents a set of players whose responses are looked up ahead of time, so that the lookups made once
+ * they are needed are served from the cache.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see UsernameApi#prefetch(PrefetchRequest)
+ */
+@Value.Immutable
+public interface PrefetchRequest {
+  /** The types of responses that can be prefetched. */
+  enum ResponseType {
+    /** The {@link UsernameToUuidResponse} of each username. */
+    UUID,
+    /** The {@link UuidToNameHistoryResponse} of each player. */
+    NAME_HISTORY,
+    /** The {@link UuidToProfileAndSkinCapeResponse} of each player. */
+    PROFILE_AND_SKIN_CAPE,
+  }
+
+  /** @return the usernames of the players to prefetch. */
+  Set<String> usernames();
+
+  /** @return the uuids of the players to prefetch. */
+  Set<UUID> uuids();
+
+  /**
+   * @return the types of responses to prefetch. Usernames are resolved to their uuids to prefetch the
+   *     responses of uuids, which prefetches their {@link ResponseType#UUID} too.
+   */
+  Set<ResponseType> responseTypes();
+
+  /**
+   * @return the maximum number of lookups of this prefetch that are sent at the same time, so that it does not
+   *     take over the transport from the lookups made on demand.
+   */
+  @Value.Default
+  default int maxConcurrentLookups() {
+    return 2;
+  }
+
+  @Value.Check
+  default void check() {
+    checkState(maxConcurrentLookups() > 0, "maxConcurrentLookups must be positive");
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Consumer;
+
+/**
+ * Static methods to decode the textures property of the profiles, which the session server sends Base64
+ * encoded.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ * @see UuidToProfileAndSkinCapeResponse#textures()
+ */
+public final class ProfileTextures {
+  private ProfileTextures() {}
+
+  /**
+   * Decodes the Base64 encoded value of a textures property.
+   *
+   * @throws UncheckedIOException if the value is not valid Base64 or not a valid textures object.
+   */
+  public static UuidToProfileAndSkinCapeResponse.Textures decode(String encodedTextures) {
+    ImmutableTextures.Builder builder = ImmutableTextures.builder().slimModel(false);
+    byte[] decodedTextures;
+    try {
+      decodedTextures = Base64.getDecoder().decode(encodedTextures);
+    } catch (IllegalArgumentException e) {
+      throw new UncheckedIOException(new IOException("Malformed Base64 textures property", e));
+    }
+    try (JsonReader reader = new JsonReader(new StringReader(new String(decodedTextures, StandardCharsets.UTF_8)))) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "timestamp":
+            builder.timestamp(reader.nextLong());
+            break;
+          case "textures":
+            decodeTexturesObject(reader, builder);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return builder.build();
+  }
+
+  private static void decodeTexturesObject(JsonReader reader, ImmutableTextures.Builder builder) throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "SKIN":
+          decodeTexture(reader, builder::skinUrl, builder);
+          break;
+        case "CAPE":
+          decodeTexture(reader, builder::capeUrl, null);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+  }
+
+  /** Decodes a texture object, also reading its model if a builder is given. */
+  private static void decodeTexture(
+      JsonReader reader, Consumer<String> url, ImmutableTextures.Builder modelBuilder) throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (name.equals("url")) {
+        url.accept(reader.nextString());
+      } else if (name.equals("metadata") && modelBuilder != null) {
+        reader.beginObject();
+        while (reader.hasNext()) {
+          if (reader.nextName().equals("model")) {
+            modelBuilder.slimModel(reader.nextString().equals("slim"));
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+  }
+}
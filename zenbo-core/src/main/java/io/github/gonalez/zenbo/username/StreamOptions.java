@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import io.github.gonalez.zenbo.Request.RequestOptions;
+import org.immutables.value.Value;
+
+import java.util.Optional;
+
+/**
+ * Represents the options of a stream of lookups, such as
+ * {@link UsernameApi#streamUsernamesToUuids(java.util.Iterator, StreamOptions)}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface StreamOptions {
+  /** @return the default options. */
+  static StreamOptions defaults() {
+    return ImmutableStreamOptions.builder().build();
+  }
+
+  /**
+   * @return the maximum number of lookups of the stream running at the same time, which bounds the memory
+   *     used by the stream regardless of the number of keys.
+   */
+  @Value.Default
+  default int maxInFlight() {
+    return 64;
+  }
+
+  /** @return the options of each lookup of the stream. */
+  Optional<RequestOptions> requestOptions();
+
+  @Value.Check
+  default void check() {
+    checkState(maxInFlight() > 0, "maxInFlight must be positive");
+  }
+}
@@ -15,11 +15,15 @@
  */
 package io.github.gonalez.zenbo.username;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
  * Static methods to work with strings as uuids.
  *
+ * <p>Uuids are parsed straight into their two longs, accepting both the undashed form returned by the
+ * Mojang APIs and the dashed form of {@link UUID#toString()}.
+ *
  * @author Gaston Gonzalez (Gonalez)
  */
 public final class StringUuids {
@@ -28,18 +32,111 @@ public final class StringUuids {
   private static final char UUID_SYMBOL = '-';
 
   private static final int UUID_LENGTH_WITHOUT_SYMBOL = 32;
-  private static final int[] HYPHENS_AT = new int[]{8, 4, 4, 4};
+  private static final int UUID_LENGTH_WITH_SYMBOL = 36;
+  private static final int[] HYPHENS_AT = new int[]{8, 13, 18, 23};
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final byte[] HEX_VALUES = new byte[128];
+
+  static {
+    Arrays.fill(HEX_VALUES, (byte) -1);
+    for (int i = 0; i < HEX_DIGITS.length; i++) {
+      HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+      HEX_VALUES[Character.toUpperCase(HEX_DIGITS[i])] = (byte) i;
+    }
+  }
 
   public static UUID uuidFromString(String string) {
-    if ((string = string.replace("-", "")).length() != UUID_LENGTH_WITHOUT_SYMBOL) {
+    return uuidFromString(string, 0, string.length());
+  }
+
+  public static UUID uuidFromString(CharSequence chars) {
+    return uuidFromString(chars, 0, chars.length());
+  }
+
+  /** @return the uuid in the given range of chars, either dashed or undashed. */
+  public static UUID uuidFromString(CharSequence chars, int start, int end) {
+    int length = end - start;
+    if (length == UUID_LENGTH_WITHOUT_SYMBOL) {
+      return new UUID(parseHex(chars, start, 16), parseHex(chars, start + 16, 16));
+    }
+    checkLength(length);
+    for (int hyphenAt : HYPHENS_AT) {
+      if (chars.charAt(start + hyphenAt) != UUID_SYMBOL) {
+        throw new IllegalArgumentException(String.format("Expected '%s' at %d", UUID_SYMBOL, hyphenAt));
+      }
+    }
+    return new UUID(
+        parseHex(chars, start, 8) << 32
+            | parseHex(chars, start + 9, 4) << 16
+            | parseHex(chars, start + 14, 4),
+        parseHex(chars, start + 19, 4) << 48
+            | parseHex(chars, start + 24, 12));
+  }
+
+  /** @return the uuid in the given range of ASCII bytes, such as a response buffer, either dashed or undashed. */
+  public static UUID uuidFromBytes(byte[] bytes, int offset, int length) {
+    if (length == UUID_LENGTH_WITHOUT_SYMBOL) {
+      return new UUID(parseHex(bytes, offset, 16), parseHex(bytes, offset + 16, 16));
+    }
+    checkLength(length);
+    for (int hyphenAt : HYPHENS_AT) {
+      if (bytes[offset + hyphenAt] != UUID_SYMBOL) {
+        throw new IllegalArgumentException(String.format("Expected '%s' at %d", UUID_SYMBOL, hyphenAt));
+      }
+    }
+    return new UUID(
+        parseHex(bytes, offset, 8) << 32
+            | parseHex(bytes, offset + 9, 4) << 16
+            | parseHex(bytes, offset + 14, 4),
+        parseHex(bytes, offset + 19, 4) << 48
+            | parseHex(bytes, offset + 24, 12));
+  }
+
+  /** @return the given uuid as a string without hyphens, the form used in the Mojang API urls. */
+  public static String toUndashedString(UUID uuid) {
+    char[] chars = new char[UUID_LENGTH_WITHOUT_SYMBOL];
+    writeHex(uuid.getMostSignificantBits(), chars, 0);
+    writeHex(uuid.getLeastSignificantBits(), chars, 16);
+    return new String(chars);
+  }
+
+  private static void checkLength(int length) {
+    if (length != UUID_LENGTH_WITH_SYMBOL) {
       throw new IllegalArgumentException(String.format(
-          "Unexpected string-uuid length: %s, got %s", UUID_LENGTH_WITHOUT_SYMBOL, string.length()));
+          "Unexpected string-uuid length: %s or %s, got %s",
+          UUID_LENGTH_WITHOUT_SYMBOL, UUID_LENGTH_WITH_SYMBOL, length));
     }
-    int at = 0;
-    StringBuilder stringBuilder = new StringBuilder(string);
-    for (int j : HYPHENS_AT) {
-      stringBuilder.insert(at+=j, UUID_SYMBOL); at++;
+  }
+
+  private static long parseHex(CharSequence chars, int start, int digits) {
+    long value = 0;
+    for (int i = start; i < start + digits; i++) {
+      value = value << 4 | hexValue(chars.charAt(i));
+    }
+    return value;
+  }
+
+  private static long parseHex(byte[] bytes, int offset, int digits) {
+    long value = 0;
+    for (int i = offset; i < offset + digits; i++) {
+      value = value << 4 | hexValue((char) (bytes[i] & 0xff));
+    }
+    return value;
+  }
+
+  private static int hexValue(char c) {
+    int value = c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+    if (value == -1) {
+      throw new IllegalArgumentException(String.format("Invalid hex digit: '%s'", c));
+    }
+    return value;
+  }
+
+  private static void writeHex(long value, char[] chars, int offset) {
+    for (int i = offset + 15; i >= offset; i--) {
+      chars[i] = HEX_DIGITS[(int) (value & 0xf)];
+      value >>>= 4;
     }
-    return UUID.fromString(stringBuilder.toString());
   }
 }
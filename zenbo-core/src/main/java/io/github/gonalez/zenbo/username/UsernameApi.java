@@ -16,6 +16,24 @@
 package io.github.gonalez.zenbo.username;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import io.github.gonalez.zenbo.HttpTransport;
+import io.github.gonalez.zenbo.Instrumentation;
+import io.github.gonalez.zenbo.LookupResult;
+import io.github.gonalez.zenbo.RateLimitedTransport;
+import io.github.gonalez.zenbo.Request;
+import io.github.gonalez.zenbo.RequestScheduler;
+import io.github.gonalez.zenbo.ResponseFailureException;
+import io.github.gonalez.zenbo.ResponseFailureExceptionProvider;
+import io.github.gonalez.zenbo.ResponseFutureCache;
+import io.github.gonalez.zenbo.username.internal.DefaultUsernameApiBuilder;
+import okhttp3.OkHttpClient;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * The API for interactions with usernames.
@@ -23,6 +41,11 @@ import com.google.common.util.concurrent.ListenableFuture;
  * @author Gaston Gonzalez (Gonalez)
  */
 public interface UsernameApi {
+  /** @return a new {@link UsernameApi} builder. */
+  static Builder newBuilder() {
+    return new DefaultUsernameApiBuilder();
+  }
+
   /**
    * Returns a response containing the UUID of the requested username.
    *
@@ -33,7 +56,9 @@ public interface UsernameApi {
   ListenableFuture<UsernameToUuidResponse> usernameToUuid(UsernameToUuidRequest request);
 
   /**
-   * Returns a response containing the UUIDs of the requested usernames.
+   * Returns a response containing the UUIDs of the requested usernames. The usernames are looked up in parts
+   * of at most 10, unless {@link UsernamesToUuidsRequest#allowPartialResults()} is set, the response fails if
+   * any of them fails.
    *
    * @param request the request to get the response for.
    * @return the request response.
@@ -58,4 +83,114 @@ public interface UsernameApi {
    * @see <a href="https://wiki.vg/Mojang_API#UUID_to_Profile_and_Skin.2FCape">UUID to Profile and Skin/Cape</a>
    */
   ListenableFuture<UuidToProfileAndSkinCapeResponse> uuidToProfileAndSkinCape(UuidToProfileAndSkinCapeRequest request);
+
+  /**
+   * Looks up the responses of the given players ahead of time and caches them, so that the lookups made once
+   * they are needed are served from the cache. Usernames are resolved through the bulk endpoint, and the
+   * lookups are sent with {@link Request.Priority#BACKGROUND background} priority so they do not delay the
+   * lookups made on demand.
+   *
+   * @param request the players and the types of responses to prefetch.
+   * @return a future completed once all the lookups complete, which does not fail when some of them fail.
+   */
+  ListenableFuture<Void> prefetch(PrefetchRequest request);
+
+  /**
+   * Returns a publisher of the uuids of the given usernames, looked up like
+   * {@link #usernameToUuid(UsernameToUuidRequest)} so that they use the cache and the batching of the lookups.
+   * The usernames are taken from the iterator as the subscriber requests results, with at most
+   * {@link StreamOptions#maxInFlight()} lookups running at the same time, so the memory used does not grow
+   * with the number of usernames. A {@code Stream} can be passed with {@code Stream#iterator()}.
+   *
+   * <p>The results are published in completion order, each with its uuid or the failure of its lookup,
+   * and the publisher supports a single subscriber.
+   *
+   * @param usernames the usernames to look up.
+   * @param options the options of the stream.
+   * @return the publisher of the results.
+   */
+  Flow.Publisher<LookupResult<String, UUID>> streamUsernamesToUuids(Iterator<String> usernames, StreamOptions options);
+
+  /**
+   * Returns a publisher of the profiles of the given uuids, looked up like
+   * {@link #uuidToProfileAndSkinCape(UuidToProfileAndSkinCapeRequest)}, which behaves like
+   * {@link #streamUsernamesToUuids(Iterator, StreamOptions)}.
+   *
+   * @param uuids the uuids to look up.
+   * @param options the options of the stream.
+   * @return the publisher of the results.
+   */
+  Flow.Publisher<LookupResult<UUID, UuidToProfileAndSkinCapeResponse>> streamUuidsToProfileAndSkinCape(
+      Iterator<UUID> uuids, StreamOptions options);
+
+  /** Builder to create {@link UsernameApi}s. */
+  interface Builder {
+    /** Sets the http client used to send the requests, executing the calls in a blocking manner. */
+    Builder httpClient(OkHttpClient httpClient);
+
+    /**
+     * Sets the transport used to send the requests, overriding {@link #httpClient(OkHttpClient)}. Wrap it in a
+     * {@link RateLimitedTransport} to stay within the rate limits of the Mojang API.
+     */
+    Builder transport(HttpTransport transport);
+
+    /**
+     * Sets the base urls the requests are sent to, such as a mirror or a caching proxy of the Mojang API. If
+     * not set, the requests are sent to the Mojang API.
+     */
+    Builder endpoints(MojangEndpoints endpoints);
+
+    /**
+     * Sets the provider of the exceptions the lookups fail with for unsuccessful response codes. Codes without
+     * an exception fail with a generic {@link ResponseFailureException}.
+     */
+    Builder responseFailureExceptionProvider(ResponseFailureExceptionProvider responseFailureExceptionProvider);
+
+    /**
+     * Sets the instrumentation that receives the events of every lookup, such as cache hits and response
+     * latencies, if not set no events are recorded.
+     */
+    Builder instrumentation(Instrumentation instrumentation);
+
+    /**
+     * Sets the scheduler of the requests sent by the lookups, which runs them by the priority set in their
+     * options. If not set, a scheduler with the default limits is used.
+     */
+    Builder requestScheduler(RequestScheduler requestScheduler);
+
+    /** Sets the executor on which the lookups are run. */
+    Builder executor(Executor executor);
+
+    /** Sets the cache of the responses, if not set an unbounded cache is used. */
+    Builder responseCache(ResponseFutureCache responseCache);
+
+    /**
+     * Sets whether each lookup runs on its own virtual thread, so that blocking calls can scale to a
+     * large number of concurrent lookups. Virtual threads require Java 21 or later, on earlier versions
+     * the lookups run on the {@link #executor(Executor) executor}.
+     */
+    Builder useVirtualThreads(boolean useVirtualThreads);
+
+    /**
+     * Enables batching of the {@link #usernameToUuid(UsernameToUuidRequest)} lookups, the usernames looked up
+     * within the given window, or until the bulk endpoint limit of 10 usernames is reached, are sent together
+     * as a single bulk lookup. Disabled by default.
+     */
+    Builder batchUsernameLookups(Duration window);
+
+    /**
+     * Sets the scheduler that sends the batched lookups once their window elapses, if not set a single
+     * daemon thread is used.
+     */
+    Builder batchScheduler(ScheduledExecutorService batchScheduler);
+
+    /**
+     * Sets the index fed with the identities of all the responses, which answers the lookups it can before
+     * sending them, unless they ignore the cache. Not set by default.
+     */
+    Builder identityIndex(IdentityIndex identityIndex);
+
+    /** @return a new {@link UsernameApi} from this builder. */
+    UsernameApi build();
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import io.github.gonalez.zenbo.OffHeapResponseFutureCache;
+import io.github.gonalez.zenbo.PersistentResponseFutureCache;
+import io.github.gonalez.zenbo.ResponseCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The {@link ResponseCodec}s to store the responses of the {@link UsernameApi} in a {@link PersistentResponseFutureCache}
+ * or an {@link OffHeapResponseFutureCache}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class UsernameResponseCodecs {
+  private UsernameResponseCodecs() {}
+
+  public static final ResponseCodec<UsernameToUuidResponse> USERNAME_TO_UUID =
+      new ResponseCodec<UsernameToUuidResponse>() {
+        @Override
+        public void encode(UsernameToUuidResponse response, DataOutput output) throws IOException {
+          output.writeLong(response.uuid().getMostSignificantBits());
+          output.writeLong(response.uuid().getLeastSignificantBits());
+        }
+
+        @Override
+        public UsernameToUuidResponse decode(DataInput input) throws IOException {
+          return ImmutableUsernameToUuidResponse.builder()
+              .uuid(new UUID(input.readLong(), input.readLong()))
+              .build();
+        }
+      };
+
+  public static final ResponseCodec<UuidToNameHistoryResponse> UUID_TO_NAME_HISTORY =
+      new ResponseCodec<UuidToNameHistoryResponse>() {
+        @Override
+        public void encode(UuidToNameHistoryResponse response, DataOutput output) throws IOException {
+          output.writeInt(response.usernames().size());
+          for (String username : response.usernames()) {
+            output.writeUTF(username);
+          }
+          writeOptional(response.currentUsername(), output);
+        }
+
+        @Override
+        public UuidToNameHistoryResponse decode(DataInput input) throws IOException {
+          ImmutableUuidToNameHistoryResponse.Builder builder = ImmutableUuidToNameHistoryResponse.builder();
+          for (int i = input.readInt(); i > 0; i--) {
+            builder.addUsernames(input.readUTF());
+          }
+          return builder
+              .currentUsername(readOptional(input))
+              .build();
+        }
+      };
+
+  public static final ResponseCodec<UuidToProfileAndSkinCapeResponse> UUID_TO_PROFILE_AND_SKIN_CAPE =
+      new ResponseCodec<UuidToProfileAndSkinCapeResponse>() {
+        @Override
+        public void encode(UuidToProfileAndSkinCapeResponse response, DataOutput output) throws IOException {
+          output.writeUTF(response.username());
+          writeOptional(response.encodedTextures(), output);
+          writeOptional(response.texturesSignature(), output);
+        }
+
+        @Override
+        public UuidToProfileAndSkinCapeResponse decode(DataInput input) throws IOException {
+          return ImmutableUuidToProfileAndSkinCapeResponse.builder()
+              .username(input.readUTF())
+              .encodedTextures(readOptional(input))
+              .texturesSignature(readOptional(input))
+              .build();
+        }
+      };
+
+  /** Registers the codecs of all the single-profile requests of the {@link UsernameApi} in the given builder. */
+  public static PersistentResponseFutureCache.Builder registerAll(PersistentResponseFutureCache.Builder builder) {
+    return builder
+        .codec(UsernameToUuidRequest.class, USERNAME_TO_UUID)
+        .codec(UuidToNameHistoryRequest.class, UUID_TO_NAME_HISTORY)
+        .codec(UuidToProfileAndSkinCapeRequest.class, UUID_TO_PROFILE_AND_SKIN_CAPE);
+  }
+
+  /** Registers the codecs of all the single-profile requests of the {@link UsernameApi} in the given builder. */
+  public static OffHeapResponseFutureCache.Builder registerAll(OffHeapResponseFutureCache.Builder builder) {
+    return builder
+        .codec(UsernameToUuidRequest.class, USERNAME_TO_UUID)
+        .codec(UuidToNameHistoryRequest.class, UUID_TO_NAME_HISTORY)
+        .codec(UuidToProfileAndSkinCapeRequest.class, UUID_TO_PROFILE_AND_SKIN_CAPE);
+  }
+
+  private static void writeOptional(Optional<String> value, DataOutput output) throws IOException {
+    output.writeBoolean(value.isPresent());
+    if (value.isPresent()) {
+      output.writeUTF(value.get());
+    }
+  }
+
+  private static Optional<String> readOptional(DataInput input) throws IOException {
+    return input.readBoolean() ? Optional.of(input.readUTF()) : Optional.empty();
+  }
+}
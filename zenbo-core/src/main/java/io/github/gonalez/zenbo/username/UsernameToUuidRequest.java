@@ -15,9 +15,12 @@
  */
 package io.github.gonalez.zenbo.username;
 
+import io.github.gonalez.zenbo.LookupKey;
 import io.github.gonalez.zenbo.Request;
 import org.immutables.value.Value;
 
+import java.util.Locale;
+
 /**
  * Represents the request for the <a href="https://wiki.vg/Mojang_API#Username_to_UUID">Username to UUID</a>.
  *
@@ -27,4 +30,10 @@ import org.immutables.value.Value;
 public interface UsernameToUuidRequest extends Request<UsernameToUuidResponse> {
   /** @return the name for which to get the uuid for. */
   String username();
+
+  @Override
+  @Value.Lazy
+  default LookupKey lookupKey() {
+    return LookupKey.of(UsernameToUuidRequest.class, username().toLowerCase(Locale.ROOT));
+  }
 }
@@ -15,9 +15,15 @@
  */
 package io.github.gonalez.zenbo.username;
 
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+
+import com.google.common.collect.ImmutableList;
+import io.github.gonalez.zenbo.LookupKey;
 import io.github.gonalez.zenbo.Request;
 import org.immutables.value.Value;
 
+import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -27,6 +33,43 @@ import java.util.Set;
  */
 @Value.Immutable
 public interface UsernamesToUuidsRequest extends Request<UsernamesToUuidsResponse> {
+  /** Listener notified of the results of each part of the request as soon as they are known. */
+  @FunctionalInterface
+  interface PartialResultListener {
+    /**
+     * Called once for each part of the request, such as each bulk call or each username answered from the
+     * cache, with the uuids and failures of the usernames of that part.
+     */
+    void onPartialResult(UsernamesToUuidsResponse partialResult);
+  }
+
   /** @return the names for which to get the uuids for. */
   Set<String> usernames();
+
+  /**
+   * @return whether the response is returned even if some usernames failed, with their failures in
+   *     {@link UsernamesToUuidsResponse#failures()}. If {@code false}, the default, the request fails if any
+   *     of the usernames fails.
+   */
+  @Value.Default
+  default boolean allowPartialResults() {
+    return false;
+  }
+
+  /**
+   * @return the listener notified of the results of each part of the request as soon as they are known. A
+   *     request answered from the cache, or sharing the lookup of an identical request in flight, is notified
+   *     once of the whole response instead.
+   */
+  Optional<PartialResultListener> partialResultListener();
+
+  @Override
+  @Value.Lazy
+  default LookupKey lookupKey() {
+    return LookupKey.of(UsernamesToUuidsRequest.class, ImmutableList.of(
+        usernames().stream()
+            .map(username -> username.toLowerCase(Locale.ROOT))
+            .collect(toImmutableSet()),
+        allowPartialResults()));
+  }
 }
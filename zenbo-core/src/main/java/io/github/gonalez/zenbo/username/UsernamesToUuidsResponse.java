@@ -15,9 +15,12 @@
  */
 package io.github.gonalez.zenbo.username;
 
+import com.google.common.collect.ImmutableSet;
 import io.github.gonalez.zenbo.Response;
+import io.github.gonalez.zenbo.ResponseNotFoundException;
 import org.immutables.value.Value;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -29,6 +32,24 @@ import java.util.UUID;
  */
 @Value.Immutable
 public interface UsernamesToUuidsResponse extends Response {
-  /** @return the uuids of the requested username. */
-  Set<UUID> uuid();
+  /** @return the uuid of each requested username that was found, keyed by the username as requested. */
+  Map<String, UUID> uuidsByUsername();
+
+  /**
+   * @return the failure of each requested username that could not be looked up, keyed by the username as
+   *     requested. Usernames that do not exist fail with a {@link ResponseNotFoundException}.
+   */
+  Map<String, Throwable> failures();
+
+  /** Partial responses are only cached if all their failures are of usernames that do not exist. */
+  @Override
+  default boolean isCacheable() {
+    return failures().values().stream().allMatch(failure -> failure instanceof ResponseNotFoundException);
+  }
+
+  /** @return the uuids of the requested usernames. */
+  @Value.Lazy
+  default Set<UUID> uuid() {
+    return ImmutableSet.copyOf(uuidsByUsername().values());
+  }
 }
@@ -15,6 +15,7 @@
  */
 package io.github.gonalez.zenbo.username;
 
+import io.github.gonalez.zenbo.LookupKey;
 import io.github.gonalez.zenbo.Request;
 import org.immutables.value.Value;
 
@@ -29,4 +30,10 @@ import java.util.UUID;
 public interface UuidToNameHistoryRequest extends Request<UuidToNameHistoryResponse> {
   /** @return the uuid for which to get the names for. */
   UUID uuid();
+
+  @Override
+  @Value.Lazy
+  default LookupKey lookupKey() {
+    return LookupKey.of(UuidToNameHistoryRequest.class, uuid());
+  }
 }
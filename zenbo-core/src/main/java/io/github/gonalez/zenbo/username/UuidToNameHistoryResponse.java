@@ -18,6 +18,7 @@ package io.github.gonalez.zenbo.username;
 import io.github.gonalez.zenbo.Response;
 import org.immutables.value.Value;
 
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -30,4 +31,10 @@ import java.util.Set;
 public interface UuidToNameHistoryResponse extends Response {
   /** @return a list of all usernames the user with the request uuid has used in the past. */
   Set<String> usernames();
+
+  /**
+   * @return the username the user currently has, the last one of its history. It is not necessarily the
+   *     last of {@link #usernames()}, where a name the user changed back to keeps its first position.
+   */
+  Optional<String> currentUsername();
 }
@@ -19,21 +19,60 @@ import io.github.gonalez.zenbo.Response;
 import org.immutables.value.Value;
 
 import java.util.Optional;
+import java.util.OptionalLong;
 
 /**
- * Represents the response of a {@link UuidToProfileAndSkinCapeRequest}.
+ * Represents the response of a {@link UuidToProfileAndSkinCapeRequest}. The textures property is kept encoded
+ * as received, and only decoded the first time one of its values is accessed.
  *
  * @author Gaston Gonzalez (Gonalez)
  * @see UuidToProfileAndSkinCapeRequest
  */
 @Value.Immutable
 public interface UuidToProfileAndSkinCapeResponse extends Response {
+  /** The decoded textures property of a profile. */
+  @Value.Immutable
+  interface Textures {
+    /** @return the skin url of the profile. */
+    Optional<String> skinUrl();
+
+    /** @return the cape url of the profile. */
+    Optional<String> capeUrl();
+
+    /** @return {@code true} if the skin uses the slim arms model, {@code false} for the classic one. */
+    boolean slimModel();
+
+    /** @return the time in milliseconds at which the property was generated. */
+    OptionalLong timestamp();
+  }
+
   /** @return the username of the requested uuid. */
   String username();
 
+  /** @return the Base64 encoded value of the textures property, as received from the session server. */
+  Optional<String> encodedTextures();
+
+  /** @return the signature of the textures property, as received from the session server. */
+  Optional<String> texturesSignature();
+
+  /**
+   * @return the decoded textures property, empty if there is none.
+   * @throws java.io.UncheckedIOException if the textures property is malformed.
+   */
+  @Value.Lazy
+  default Textures textures() {
+    return encodedTextures().isPresent()
+        ? ProfileTextures.decode(encodedTextures().get())
+        : ImmutableTextures.builder().slimModel(false).build();
+  }
+
   /** @return the skin url of the requested uuid. */
-  Optional<String> skinUrl();
+  default Optional<String> skinUrl() {
+    return textures().skinUrl();
+  }
 
   /** @return the cape url of the requested uuid. */
-  Optional<String> capeUrl();
+  default Optional<String> capeUrl() {
+    return textures().capeUrl();
+  }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username.internal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.github.gonalez.zenbo.username.IdentityIndex;
+import io.github.gonalez.zenbo.username.UuidToNameHistoryResponse;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A default implementation of {@link IdentityIndex} backed by Guava caches. Reads do not lock, and the
+ * writes are serialized so that a name change updates both directions of the index together.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+final class DefaultIdentityIndex implements IdentityIndex {
+  /** The uuids by lowercase username. */
+  private final Cache<String, UUID> uuids;
+  /** The current usernames by uuid, with their exact case if known. */
+  private final Cache<UUID, String> usernames;
+  private final Cache<UUID, UuidToNameHistoryResponse> nameHistories;
+
+  DefaultIdentityIndex(DefaultIdentityIndexBuilder builder) {
+    this.uuids = newCache(builder);
+    this.usernames = newCache(builder);
+    this.nameHistories = newCache(builder);
+  }
+
+  private static <K, V> Cache<K, V> newCache(DefaultIdentityIndexBuilder builder) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(builder.maximumSize)
+        .expireAfterWrite(builder.expireAfterWrite)
+        .ticker(builder.ticker)
+        .build();
+  }
+
+  @Override
+  public Optional<UUID> uuidOf(String username) {
+    return Optional.ofNullable(uuids.getIfPresent(username.toLowerCase(Locale.ROOT)));
+  }
+
+  @Override
+  public Optional<String> usernameOf(UUID uuid) {
+    return Optional.ofNullable(usernames.getIfPresent(uuid));
+  }
+
+  @Override
+  public Optional<UuidToNameHistoryResponse> nameHistoryOf(UUID uuid) {
+    return Optional.ofNullable(nameHistories.getIfPresent(uuid));
+  }
+
+  @Override
+  public synchronized void recordUsername(String username, UUID uuid) {
+    String key = username.toLowerCase(Locale.ROOT);
+    link(key, uuid);
+    String current = usernames.getIfPresent(uuid);
+    if (current != null && !current.equalsIgnoreCase(username)) {
+      // The uuid changed its name, the exact case of the new one is not known.
+      unlinkPreviousName(uuid, current);
+      usernames.invalidate(uuid);
+    }
+  }
+
+  @Override
+  public synchronized void recordProfile(UUID uuid, String username) {
+    String previous = usernames.getIfPresent(uuid);
+    if (previous != null && !previous.equalsIgnoreCase(username)) {
+      unlinkPreviousName(uuid, previous);
+    }
+    link(username.toLowerCase(Locale.ROOT), uuid);
+    usernames.put(uuid, username);
+  }
+
+  @Override
+  public synchronized void recordNameHistory(UUID uuid, UuidToNameHistoryResponse nameHistory) {
+    nameHistory.currentUsername().ifPresent(current -> recordProfile(uuid, current));
+    // Recorded after the current name, whose change invalidates the previous history.
+    nameHistories.put(uuid, nameHistory);
+  }
+
+  /** Maps the given lowercase username to the given uuid, unmapping the uuid that used it before. */
+  private void link(String key, UUID uuid) {
+    UUID previous = uuids.asMap().put(key, uuid);
+    if (previous != null && !previous.equals(uuid)) {
+      String previousUsername = usernames.getIfPresent(previous);
+      if (previousUsername != null && previousUsername.equalsIgnoreCase(key)) {
+        usernames.invalidate(previous);
+      }
+      // The previous owner of the name changed its name, so its history is outdated.
+      nameHistories.invalidate(previous);
+    }
+  }
+
+  /**
+   * Unmaps the previous name of the given uuid, which changed its name, along with its name history, which
+   * no longer ends with its current name.
+   */
+  private void unlinkPreviousName(UUID uuid, String previousUsername) {
+    uuids.asMap().remove(previousUsername.toLowerCase(Locale.ROOT), uuid);
+    nameHistories.invalidate(uuid);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ticker;
+import io.github.gonalez.zenbo.username.IdentityIndex;
+
+import java.time.Duration;
+
+/**
+ * A default implementation of {@link IdentityIndex.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultIdentityIndexBuilder implements IdentityIndex.Builder {
+  long maximumSize = 100_000;
+  Duration expireAfterWrite = Duration.ofMinutes(10);
+  Ticker ticker = Ticker.systemTicker();
+
+  @Override
+  public IdentityIndex.Builder maximumSize(long maximumSize) {
+    checkArgument(maximumSize >= 0, "maximumSize must not be negative");
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  @Override
+  public IdentityIndex.Builder expireAfterWrite(Duration duration) {
+    checkArgument(!duration.isNegative(), "duration must not be negative");
+    this.expireAfterWrite = duration;
+    return this;
+  }
+
+  @Override
+  public IdentityIndex.Builder ticker(Ticker ticker) {
+    this.ticker = checkNotNull(ticker);
+    return this;
+  }
+
+  @Override
+  public IdentityIndex build() {
+    return new DefaultIdentityIndex(this);
+  }
+}
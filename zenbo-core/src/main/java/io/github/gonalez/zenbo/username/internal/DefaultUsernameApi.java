@@ -15,22 +15,30 @@
  */
 package io.github.gonalez.zenbo.username.internal;
 
-import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.github.gonalez.zenbo.Responses.buildCachingFutureForRequest;
+import static io.github.gonalez.zenbo.Responses.getCachedOrNull;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.io.CountingInputStream;
 import com.google.common.util.concurrent.*;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import io.github.gonalez.zenbo.*;
+import io.github.gonalez.zenbo.Request.Priority;
+import io.github.gonalez.zenbo.Request.RequestOptions;
+import io.github.gonalez.zenbo.internal.ConcurrencyLimiter;
+import io.github.gonalez.zenbo.internal.LookupPublisher;
 import io.github.gonalez.zenbo.username.*;
 import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * A basic implementation of {@link UsernameApi}.
@@ -38,131 +46,494 @@ import java.util.concurrent.Executor;
  * @author Gaston Gonzalez (Gonalez)
  */
 public class DefaultUsernameApi implements UsernameApi {
-  private final OkHttpClient httpClient;
+  /** The maximum number of usernames accepted by the bulk username to uuid endpoint. */
+  private static final int MAX_USERNAMES_PER_BULK_REQUEST = 10;
+
+  /** The response codes of the lookups of unknown usernames and uuids. */
+  private static final int NO_CONTENT = 204;
+  private static final int NOT_FOUND = 404;
+
+  private final HttpTransport transport;
+  private final MojangEndpoints endpoints;
   private final Executor executor;
   private final ResponseFutureCache responseCache;
+  private final ResponseFailureExceptionProvider responseFailureExceptionProvider;
+  private final Instrumentation instrumentation;
+  private final RequestCoalescer coalescer;
+  private final RequestScheduler requestScheduler;
+  /** Batches the single username lookups, or {@code null} if they are not batched. */
+  private final UsernameBatcher usernameBatcher;
+  /** Indexes the identities of all the responses, or {@code null} if they are not indexed. */
+  private final IdentityIndex identityIndex;
 
   public DefaultUsernameApi(
       OkHttpClient httpClient,
       Executor executor,
       ResponseFutureCache responseCache) {
-    this.httpClient = httpClient;
+    this(HttpTransport.blocking(httpClient), executor, responseCache);
+  }
+
+  public DefaultUsernameApi(
+      HttpTransport transport,
+      Executor executor,
+      ResponseFutureCache responseCache) {
+    this(transport, executor, responseCache, ResponseFailureExceptionProvider.newBuilder().build());
+  }
+
+  public DefaultUsernameApi(
+      HttpTransport transport,
+      Executor executor,
+      ResponseFutureCache responseCache,
+      ResponseFailureExceptionProvider responseFailureExceptionProvider) {
+    this.transport = transport;
+    this.endpoints = MojangEndpoints.mojang();
     this.executor = executor;
     this.responseCache = responseCache;
+    this.responseFailureExceptionProvider = responseFailureExceptionProvider;
+    this.instrumentation = Instrumentation.noop();
+    this.coalescer = new RequestCoalescer();
+    this.requestScheduler = RequestScheduler.newBuilder()
+        .executor(executor)
+        .build();
+    this.usernameBatcher = null;
+    this.identityIndex = null;
+  }
+
+  DefaultUsernameApi(DefaultUsernameApiBuilder builder) {
+    this.transport = builder.transport();
+    this.endpoints = builder.endpoints();
+    this.executor = builder.executor();
+    this.responseCache = builder.responseCache();
+    this.responseFailureExceptionProvider = builder.responseFailureExceptionProvider();
+    this.instrumentation = builder.instrumentation();
+    this.coalescer = new RequestCoalescer(instrumentation);
+    this.requestScheduler = builder.requestScheduler(executor);
+    this.usernameBatcher = builder.batchWindow == null
+        ? null
+        : new UsernameBatcher(builder.batchWindow.toNanos(), MAX_USERNAMES_PER_BULK_REQUEST,
+            builder.batchScheduler(), executor, this::fetchUuids);
+    this.identityIndex = builder.identityIndex;
   }
 
   @Override
   public ListenableFuture<UsernameToUuidResponse> usernameToUuid(UsernameToUuidRequest request) {
-    return buildCachingFutureForRequest(request, responseCache, executor,
+    return buildCachingFutureForRequest(request, responseCache, coalescer, instrumentation, executor,
         () -> {
-          Response response = httpClient.newCall(
-              new Request.Builder()
-                  .url("https://api.mojang.com/users/profiles/minecraft/" + request.username())
-                  .build())
-              .execute();
-          if (!response.isSuccessful()) {
-            return Futures.immediateFailedFuture(new ResponseFailureException());
+          Optional<UUID> indexedUuid = indexedUuidOf(request.username(), request.options());
+          if (indexedUuid.isPresent()) {
+            return Futures.immediateFuture(
+                ImmutableUsernameToUuidResponse.builder()
+                    .uuid(indexedUuid.get())
+                    .build());
+          }
+          if (usernameBatcher != null) {
+            // The bulk lookups of the batcher record the identities themselves.
+            return Futures.transform(usernameBatcher.lookup(request.username(), priorityOf(request.options())),
+                uuid -> ImmutableUsernameToUuidResponse.builder()
+                    .uuid(uuid)
+                    .build(),
+                directExecutor());
           }
-          return Futures.immediateFuture(
-              ImmutableUsernameToUuidResponse.builder()
-                  .uuid(StringUuids.uuidFromString(
-                      OkResponses.responseToJson(response).getAsJsonObject().get("id").getAsString()))
-                  .build());
+          return recordIdentity(
+              execute(UsernameToUuidRequest.class, priorityOf(request.options()),
+                  ImmutableTransportRequest.builder()
+                      .url(endpoints.usernameToUuidUrl(request.username()))
+                      .build(),
+                  UsernameJsonDecoders::decodeUsernameToUuid),
+              response -> identityIndex.recordUsername(request.username(), response.uuid()));
         });
   }
 
   @Override
   public ListenableFuture<UsernamesToUuidsResponse> usernamesToUuids(UsernamesToUuidsRequest request) {
-    return buildCachingFutureForRequest(request, responseCache, executor,
+    AtomicBoolean ownLookup = new AtomicBoolean();
+    ListenableFuture<UsernamesToUuidsResponse> future = buildCachingFutureForRequest(
+        request, responseCache, coalescer, instrumentation, executor,
         () -> {
-          ImmutableList<ListenableFuture<UsernameToUuidResponse>> responses = request.usernames().stream()
-              .map(s -> usernameToUuid(
-                  ImmutableUsernameToUuidRequest.builder()
-                      .username(s)
-                      .build()))
-              .collect(toImmutableList());
-          return Futures.whenAllComplete(responses)
-              .callAsync(
+          // Only the lookup whose future is returned to this request notifies it of its parts, not a refresh.
+          boolean notifyParts = ownLookup.get();
+          Optional<RequestOptions> optionsOptional = request.options();
+          boolean ignoreCache = ignoresCache(optionsOptional);
+          boolean cacheable = optionsOptional.isPresent() && optionsOptional.get().cacheable();
+
+          Map<String, String> usernamesByKey = new LinkedHashMap<>();
+          for (String username : request.usernames()) {
+            usernamesByKey.putIfAbsent(username.toLowerCase(Locale.ROOT), username);
+          }
+          List<ListenableFuture<UsernamesToUuidsResponse>> partialResults = new ArrayList<>();
+          List<String> missingUsernames = new ArrayList<>();
+          for (String username : usernamesByKey.values()) {
+            ListenableFuture<UsernameToUuidResponse> cached = ignoreCache
+                ? null
+                : getCachedOrNull(responseCache, usernameToUuidRequest(username, optionsOptional));
+            if (cached == null) {
+              Optional<UUID> indexedUuid = indexedUuidOf(username, optionsOptional);
+              if (indexedUuid.isPresent()) {
+                partialResults.add(partialResult(request, notifyParts, ImmutableList.of(username),
+                    Futures.immediateFuture(ImmutableMap.of(username.toLowerCase(Locale.ROOT), indexedUuid.get()))));
+              } else {
+                missingUsernames.add(username);
+              }
+              continue;
+            }
+            partialResults.add(partialResult(request, notifyParts, ImmutableList.of(username),
+                Futures.transform(cached,
+                    response -> ImmutableMap.of(username.toLowerCase(Locale.ROOT), response.uuid()),
+                    directExecutor())));
+          }
+          for (List<String> usernames : Lists.partition(missingUsernames, MAX_USERNAMES_PER_BULK_REQUEST)) {
+            partialResults.add(partialResult(request, notifyParts, usernames,
+                Futures.transform(fetchUuids(usernames, priorityOf(optionsOptional)), uuids -> {
+                  if (cacheable) {
+                    for (String username : usernames) {
+                      UUID uuid = uuids.get(username.toLowerCase(Locale.ROOT));
+                      if (uuid != null) {
+                        responseCache.put(usernameToUuidRequest(username, optionsOptional),
+                            Futures.immediateFuture(
+                                ImmutableUsernameToUuidResponse.builder()
+                                    .uuid(uuid)
+                                    .build()));
+                      }
+                    }
+                  }
+                  return uuids;
+                }, directExecutor())));
+          }
+
+          return Futures.whenAllSucceed(partialResults)
+              .call(
                   () -> {
-                    Set<UUID> uuids = new HashSet<>();
-                    for (ListenableFuture<UsernameToUuidResponse> response : responses) {
-                      UsernameToUuidResponse getDone = Futures.getDone(response);
-                      if (getDone == null) {
-                        return Futures.immediateFailedFuture(new ResponseFailureException(
-                            String.format("Failed to get complete list of usernames, got %d, expected %d",
-                                uuids.size(),
-                                request.usernames().size())));
+                    ImmutableUsernamesToUuidsResponse.Builder builder = ImmutableUsernamesToUuidsResponse.builder();
+                    for (ListenableFuture<UsernamesToUuidsResponse> partialResult : partialResults) {
+                      UsernamesToUuidsResponse response = Futures.getDone(partialResult);
+                      builder.putAllUuidsByUsername(response.uuidsByUsername())
+                          .putAllFailures(response.failures());
+                    }
+                    UsernamesToUuidsResponse response = builder.build();
+                    if (!request.allowPartialResults() && !response.failures().isEmpty()) {
+                      for (Throwable failure : response.failures().values()) {
+                        if (!(failure instanceof ResponseNotFoundException)) {
+                          // The partial results only catch exceptions.
+                          throw (Exception) failure;
+                        }
                       }
-                      uuids.add(getDone.uuid());
+                      throw new ResponseFailureException(
+                          String.format("Failed to get complete list of usernames, got %d, expected %d",
+                              response.uuidsByUsername().size(),
+                              usernamesByKey.size()));
                     }
-                    return Futures.immediateFuture(
-                        ImmutableUsernamesToUuidsResponse.builder()
-                            .uuid(uuids)
-                            .build());
+                    return response;
                   }, executor);
-        });
+        },
+        () -> ownLookup.set(true));
+    if (request.partialResultListener().isPresent()) {
+      // The parts are only known to the request that looked them up, the requests answered from the cache
+      // or coalesced onto another one are notified of the whole response as a single part.
+      UsernamesToUuidsRequest.PartialResultListener listener = request.partialResultListener().get();
+      Futures.addCallback(future, new FutureCallback<>() {
+        @Override
+        public void onSuccess(UsernamesToUuidsResponse response) {
+          if (!ownLookup.get()) {
+            listener.onPartialResult(response);
+          }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {}
+      }, executor);
+    }
+    return future;
+  }
+
+  /**
+   * Returns the result of the given part of a {@link UsernamesToUuidsRequest}, which never fails. The usernames
+   * missing from the uuids of the part, or all of them if it failed, are returned as failures. If requested, the
+   * partial result listener of the request is notified of it once it completes.
+   */
+  private ListenableFuture<UsernamesToUuidsResponse> partialResult(
+      UsernamesToUuidsRequest request,
+      boolean notifyListener,
+      List<String> usernames,
+      ListenableFuture<? extends Map<String, UUID>> uuidsFuture) {
+    ListenableFuture<UsernamesToUuidsResponse> partialResult = Futures.catching(
+        Futures.transform(uuidsFuture, uuids -> {
+          ImmutableUsernamesToUuidsResponse.Builder builder = ImmutableUsernamesToUuidsResponse.builder();
+          for (String username : usernames) {
+            UUID uuid = uuids.get(username.toLowerCase(Locale.ROOT));
+            if (uuid != null) {
+              builder.putUuidsByUsername(username, uuid);
+            } else {
+              builder.putFailures(username, new ResponseNotFoundException("No profile found for username " + username));
+            }
+          }
+          return builder.build();
+        }, directExecutor()),
+        Exception.class,
+        exception -> {
+          ImmutableUsernamesToUuidsResponse.Builder builder = ImmutableUsernamesToUuidsResponse.builder();
+          for (String username : usernames) {
+            builder.putFailures(username, exception);
+          }
+          return builder.build();
+        },
+        directExecutor());
+    if (notifyListener) {
+      request.partialResultListener().ifPresent(listener ->
+          partialResult.addListener(() -> listener.onPartialResult(Futures.getUnchecked(partialResult)), executor));
+    }
+    return partialResult;
   }
 
   @Override
   public ListenableFuture<UuidToNameHistoryResponse> uuidToNameHistory(UuidToNameHistoryRequest request) {
-    return buildCachingFutureForRequest(request, responseCache, executor,
+    return buildCachingFutureForRequest(request, responseCache, coalescer, instrumentation, executor,
         () -> {
-          Response response = httpClient.newCall(
-              new Request.Builder()
-                  .url("https://api.mojang.com/user/profiles/" + request.uuid().toString() + "/names")
-                  .build())
-              .execute();
-          if (!response.isSuccessful()) {
-            return Futures.immediateFailedFuture(new ResponseFailureException());
-          }
-          JsonArray responseJsonArray = OkResponses.responseToJson(response).getAsJsonArray();
-          Set<String> usernames = new HashSet<>();
-          for (int i = 0 ; i < responseJsonArray.size(); i++) {
-            JsonObject jsonObject = responseJsonArray.get(i).getAsJsonObject();
-            usernames.add(jsonObject.get("name").getAsString());
+          if (identityIndex != null && !ignoresCache(request.options())) {
+            Optional<UuidToNameHistoryResponse> nameHistory = identityIndex.nameHistoryOf(request.uuid());
+            if (nameHistory.isPresent()) {
+              return Futures.immediateFuture(nameHistory.get());
+            }
           }
-          return Futures.immediateFuture(
-              ImmutableUuidToNameHistoryResponse.builder()
-                  .usernames(usernames)
-                  .build());
+          return recordIdentity(
+              execute(UuidToNameHistoryRequest.class, priorityOf(request.options()),
+                  ImmutableTransportRequest.builder()
+                      .url(endpoints.uuidToNameHistoryUrl(request.uuid()))
+                      .build(),
+                  UsernameJsonDecoders::decodeUuidToNameHistory),
+              response -> identityIndex.recordNameHistory(request.uuid(), response));
         });
   }
 
   @Override
   public ListenableFuture<UuidToProfileAndSkinCapeResponse> uuidToProfileAndSkinCape(UuidToProfileAndSkinCapeRequest request) {
-    return buildCachingFutureForRequest(request, responseCache, executor,
-        () -> {
-          Response response = httpClient.newCall(
-              new Request.Builder()
-                  .url("https://sessionserver.mojang.com/session/minecraft/profile/" + request.uuid().toString())
-                  .build())
-              .execute();
-          if (!response.isSuccessful()) {
-            return Futures.immediateFailedFuture(new ResponseFailureException());
+    return buildCachingFutureForRequest(request, responseCache, coalescer, instrumentation, executor,
+        () -> recordIdentity(
+            execute(UuidToProfileAndSkinCapeRequest.class, priorityOf(request.options()),
+                ImmutableTransportRequest.builder()
+                    .url(endpoints.uuidToProfileAndSkinCapeUrl(request.uuid()))
+                    .build(),
+                UsernameJsonDecoders::decodeUuidToProfileAndSkinCape),
+            response -> identityIndex.recordProfile(request.uuid(), response.username())));
+  }
+
+  @Override
+  public ListenableFuture<Void> prefetch(PrefetchRequest request) {
+    Optional<RequestOptions> optionsOptional = Optional.of(ImmutableRequestOptions.builder()
+        .cacheable(true)
+        .priority(Priority.BACKGROUND)
+        .build());
+    Set<PrefetchRequest.ResponseType> responseTypes = request.responseTypes();
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(request.maxConcurrentLookups());
+
+    List<ListenableFuture<?>> prefetches = new ArrayList<>();
+    for (UUID uuid : request.uuids()) {
+      prefetches.add(prefetchUuid(uuid, responseTypes, optionsOptional, limiter));
+    }
+    List<String> missingUsernames = new ArrayList<>();
+    for (String username : request.usernames()) {
+      ListenableFuture<UsernameToUuidResponse> cached =
+          getCachedOrNull(responseCache, usernameToUuidRequest(username, optionsOptional));
+      if (cached == null) {
+        missingUsernames.add(username);
+        continue;
+      }
+      prefetches.add(Futures.transformAsync(cached,
+          response -> prefetchUuid(response.uuid(), responseTypes, optionsOptional, limiter),
+          directExecutor()));
+    }
+    for (List<String> usernames : Lists.partition(missingUsernames, MAX_USERNAMES_PER_BULK_REQUEST)) {
+      prefetches.add(Futures.transformAsync(limiter.submit(() -> fetchUuids(usernames, Priority.BACKGROUND)), uuids -> {
+        List<ListenableFuture<?>> uuidPrefetches = new ArrayList<>();
+        for (String username : usernames) {
+          UUID uuid = uuids.get(username.toLowerCase(Locale.ROOT));
+          responseCache.put(usernameToUuidRequest(username, optionsOptional), uuid != null
+              ? Futures.immediateFuture(
+                  ImmutableUsernameToUuidResponse.builder()
+                      .uuid(uuid)
+                      .build())
+              : Futures.immediateFailedFuture(
+                  new ResponseNotFoundException("No profile found for username " + username)));
+          if (uuid != null) {
+            uuidPrefetches.add(prefetchUuid(uuid, responseTypes, optionsOptional, limiter));
           }
-          JsonObject jsonObjectResponse = OkResponses.responseToJson(response).getAsJsonObject();
-          ImmutableUuidToProfileAndSkinCapeResponse.Builder builder =
-              ImmutableUuidToProfileAndSkinCapeResponse.builder()
-                  .username(jsonObjectResponse.get("name").getAsString());
-          if (jsonObjectResponse.has("properties")) {
-            JsonObject jsonObject = JsonParser.parseString(new String(
-                Base64.getDecoder().decode(jsonObjectResponse.getAsJsonArray("properties")
-                    .get(0)
-                    .getAsJsonObject()
-                    .get("value")
-                    .getAsString())))
-                .getAsJsonObject();
-            if (jsonObject.has("textures")) {
-              JsonObject texturesJsonObject = jsonObject.get("textures").getAsJsonObject();
-              if (texturesJsonObject.has("SKIN")) {
-                builder.skinUrl(texturesJsonObject.get("SKIN").getAsJsonObject().get("url").getAsString());
-              }
-              if (texturesJsonObject.has("CAPE")) {
-                builder.capeUrl(texturesJsonObject.get("CAPE").getAsJsonObject().get("url").getAsString());
+        }
+        return Futures.whenAllComplete(uuidPrefetches).call(() -> null, directExecutor());
+      }, directExecutor()));
+    }
+    return Futures.whenAllComplete(prefetches).call(() -> null, directExecutor());
+  }
+
+  /** Prefetches the responses of the given uuid, besides its {@link PrefetchRequest.ResponseType#UUID}. */
+  private ListenableFuture<?> prefetchUuid(
+      UUID uuid, Set<PrefetchRequest.ResponseType> responseTypes,
+      Optional<RequestOptions> optionsOptional, ConcurrencyLimiter limiter) {
+    List<ListenableFuture<?>> prefetches = new ArrayList<>();
+    if (responseTypes.contains(PrefetchRequest.ResponseType.NAME_HISTORY)) {
+      prefetches.add(limiter.submit(() -> uuidToNameHistory(
+          ImmutableUuidToNameHistoryRequest.builder()
+              .uuid(uuid)
+              .options(optionsOptional)
+              .build())));
+    }
+    if (responseTypes.contains(PrefetchRequest.ResponseType.PROFILE_AND_SKIN_CAPE)) {
+      prefetches.add(limiter.submit(() -> uuidToProfileAndSkinCape(
+          ImmutableUuidToProfileAndSkinCapeRequest.builder()
+              .uuid(uuid)
+              .options(optionsOptional)
+              .build())));
+    }
+    return Futures.whenAllComplete(prefetches).call(() -> null, directExecutor());
+  }
+
+  @Override
+  public Flow.Publisher<LookupResult<String, UUID>> streamUsernamesToUuids(
+      Iterator<String> usernames, StreamOptions options) {
+    return new LookupPublisher<>(usernames,
+        username -> Futures.transform(
+            usernameToUuid(ImmutableUsernameToUuidRequest.builder()
+                .username(username)
+                .options(options.requestOptions())
+                .build()),
+            UsernameToUuidResponse::uuid,
+            directExecutor()),
+        options.maxInFlight());
+  }
+
+  @Override
+  public Flow.Publisher<LookupResult<UUID, UuidToProfileAndSkinCapeResponse>> streamUuidsToProfileAndSkinCape(
+      Iterator<UUID> uuids, StreamOptions options) {
+    return new LookupPublisher<>(uuids,
+        uuid -> uuidToProfileAndSkinCape(ImmutableUuidToProfileAndSkinCapeRequest.builder()
+            .uuid(uuid)
+            .options(options.requestOptions())
+            .build()),
+        options.maxInFlight());
+  }
+
+  /** Looks up the uuids of at most {@link #MAX_USERNAMES_PER_BULK_REQUEST} usernames in a single call. */
+  private ListenableFuture<Map<String, UUID>> fetchUuids(List<String> usernames, Priority priority) {
+    JsonArray usernamesJsonArray = new JsonArray();
+    usernames.forEach(usernamesJsonArray::add);
+    return recordIdentity(
+        execute(UsernamesToUuidsRequest.class, priority,
+            ImmutableTransportRequest.builder()
+                .url(endpoints.usernamesToUuidsUrl())
+                .jsonBody(usernamesJsonArray.toString())
+                .build(),
+            UsernameJsonDecoders::decodeUsernamesToUuids),
+        uuids -> uuids.forEach(identityIndex::recordUsername));
+  }
+
+  /**
+   * Returns the uuid of the given username in the identity index, or empty if there is no index or the
+   * request ignores the cache.
+   */
+  private Optional<UUID> indexedUuidOf(String username, Optional<RequestOptions> optionsOptional) {
+    if (identityIndex == null || ignoresCache(optionsOptional)) {
+      return Optional.empty();
+    }
+    return identityIndex.uuidOf(username);
+  }
+
+  /** Records the identities of the response of the given future in the identity index, if there is one. */
+  private <T> ListenableFuture<T> recordIdentity(ListenableFuture<T> future, Consumer<T> recorder) {
+    if (identityIndex != null) {
+      Futures.addCallback(future, new FutureCallback<>() {
+        @Override
+        public void onSuccess(T result) {
+          recorder.accept(result);
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {}
+      }, directExecutor());
+    }
+    return future;
+  }
+
+  /** Schedules the given request with the given priority, then sends it and decodes its response. */
+  private <T> ListenableFuture<T> execute(
+      Class<?> requestType, Priority priority, TransportRequest transportRequest, JsonDecoder<T> decoder) {
+    return requestScheduler.schedule(priority, () -> send(requestType, transportRequest, decoder));
+  }
+
+  /**
+   * Sends the given request through the transport and decodes its response while it is read, the decoding
+   * runs on the thread that completes the transport future so the executor is not involved in async transports.
+   */
+  private <T> ListenableFuture<T> send(
+      Class<?> requestType, TransportRequest transportRequest, JsonDecoder<T> decoder) {
+    boolean instrumented = instrumentation.isEnabled();
+    long startNanos = instrumented ? System.nanoTime() : 0;
+    if (instrumented) {
+      instrumentation.onRequestStarted(requestType);
+    }
+    ListenableFuture<TransportResponse> transportResponse = transport.execute(transportRequest);
+    if (instrumented) {
+      Futures.addCallback(transportResponse, new FutureCallback<>() {
+        @Override
+        public void onSuccess(TransportResponse response) {}
+
+        @Override
+        public void onFailure(Throwable throwable) {
+          instrumentation.onRequestFailed(requestType, -1, System.nanoTime() - startNanos);
+        }
+      }, directExecutor());
+    }
+    return Futures.transformAsync(transportResponse,
+        response -> {
+          try (response) {
+            if (!response.isSuccessful() || response.code() == NO_CONTENT) {
+              if (instrumented) {
+                instrumentation.onRequestFailed(
+                    requestType, response.code(), System.nanoTime() - startNanos);
               }
+              return Futures.immediateFailedFuture(responseFailure(response.code()));
+            }
+            if (!instrumented) {
+              return Futures.immediateFuture(TransportResponses.decode(response, decoder));
             }
+            long parseStartNanos = System.nanoTime();
+            CountingInputStream body = new CountingInputStream(response.body());
+            T decoded;
+            try {
+              decoded = TransportResponses.decode(body, decoder);
+            } catch (IOException | RuntimeException e) {
+              instrumentation.onRequestFailed(requestType, response.code(), System.nanoTime() - startNanos);
+              throw e;
+            }
+            long endNanos = System.nanoTime();
+            instrumentation.onRequestSucceeded(requestType, response.code(),
+                endNanos - startNanos, body.getCount(), endNanos - parseStartNanos);
+            return Futures.immediateFuture(decoded);
           }
-          return Futures.immediateFuture(builder.build());
-        });
+        }, directExecutor());
+  }
+
+  private ResponseFailureException responseFailure(int responseCode) {
+    ResponseFailureException exception = responseFailureExceptionProvider.provide(responseCode);
+    if (exception != null) {
+      return exception;
+    }
+    if (responseCode == NO_CONTENT || responseCode == NOT_FOUND) {
+      return new ResponseNotFoundException("No profile found, response code " + responseCode);
+    }
+    return new ResponseFailureException("Unexpected response code " + responseCode);
+  }
+
+  private static boolean ignoresCache(Optional<RequestOptions> optionsOptional) {
+    return optionsOptional.isPresent() && optionsOptional.get().ignoreCache();
+  }
+
+  private static Priority priorityOf(Optional<RequestOptions> optionsOptional) {
+    return optionsOptional.isPresent() ? optionsOptional.get().priority() : Priority.INTERACTIVE;
+  }
+
+  private static UsernameToUuidRequest usernameToUuidRequest(
+      String username, Optional<RequestOptions> optionsOptional) {
+    return ImmutableUsernameToUuidRequest.builder()
+        .username(username)
+        .options(optionsOptional)
+        .build();
   }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.github.gonalez.zenbo.HttpTransport;
+import io.github.gonalez.zenbo.Instrumentation;
+import io.github.gonalez.zenbo.RequestScheduler;
+import io.github.gonalez.zenbo.ResponseFailureExceptionProvider;
+import io.github.gonalez.zenbo.ResponseFutureCache;
+import io.github.gonalez.zenbo.internal.DefaultResponseCache;
+import io.github.gonalez.zenbo.internal.VirtualThreads;
+import io.github.gonalez.zenbo.username.IdentityIndex;
+import io.github.gonalez.zenbo.username.MojangEndpoints;
+import io.github.gonalez.zenbo.username.UsernameApi;
+import okhttp3.OkHttpClient;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * A default implementation of {@link UsernameApi.Builder}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultUsernameApiBuilder implements UsernameApi.Builder {
+  OkHttpClient httpClient;
+  HttpTransport transport;
+  MojangEndpoints endpoints;
+  ResponseFailureExceptionProvider responseFailureExceptionProvider;
+  Instrumentation instrumentation;
+  RequestScheduler requestScheduler;
+  Executor executor;
+  ResponseFutureCache responseCache;
+  boolean useVirtualThreads;
+  Duration batchWindow;
+  ScheduledExecutorService batchScheduler;
+  IdentityIndex identityIndex;
+
+  @Override
+  public UsernameApi.Builder httpClient(OkHttpClient httpClient) {
+    this.httpClient = checkNotNull(httpClient);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder transport(HttpTransport transport) {
+    this.transport = checkNotNull(transport);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder endpoints(MojangEndpoints endpoints) {
+    this.endpoints = checkNotNull(endpoints);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder responseFailureExceptionProvider(
+      ResponseFailureExceptionProvider responseFailureExceptionProvider) {
+    this.responseFailureExceptionProvider = checkNotNull(responseFailureExceptionProvider);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder instrumentation(Instrumentation instrumentation) {
+    this.instrumentation = checkNotNull(instrumentation);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder requestScheduler(RequestScheduler requestScheduler) {
+    this.requestScheduler = checkNotNull(requestScheduler);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder executor(Executor executor) {
+    this.executor = checkNotNull(executor);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder responseCache(ResponseFutureCache responseCache) {
+    this.responseCache = checkNotNull(responseCache);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder useVirtualThreads(boolean useVirtualThreads) {
+    this.useVirtualThreads = useVirtualThreads;
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder batchUsernameLookups(Duration window) {
+    checkArgument(!window.isNegative() && !window.isZero(), "window must be positive");
+    this.batchWindow = window;
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder batchScheduler(ScheduledExecutorService batchScheduler) {
+    this.batchScheduler = checkNotNull(batchScheduler);
+    return this;
+  }
+
+  @Override
+  public UsernameApi.Builder identityIndex(IdentityIndex identityIndex) {
+    this.identityIndex = checkNotNull(identityIndex);
+    return this;
+  }
+
+  @Override
+  public UsernameApi build() {
+    return new DefaultUsernameApi(this);
+  }
+
+  HttpTransport transport() {
+    if (transport != null) {
+      return transport;
+    }
+    return HttpTransport.blocking(httpClient != null ? httpClient : new OkHttpClient());
+  }
+
+  MojangEndpoints endpoints() {
+    return endpoints != null ? endpoints : MojangEndpoints.mojang();
+  }
+
+  ResponseFailureExceptionProvider responseFailureExceptionProvider() {
+    return responseFailureExceptionProvider != null
+        ? responseFailureExceptionProvider
+        : ResponseFailureExceptionProvider.newBuilder().build();
+  }
+
+  Instrumentation instrumentation() {
+    return instrumentation != null ? instrumentation : Instrumentation.noop();
+  }
+
+  RequestScheduler requestScheduler(Executor executor) {
+    if (requestScheduler != null) {
+      return requestScheduler;
+    }
+    return RequestScheduler.newBuilder()
+        .executor(executor)
+        .build();
+  }
+
+  Executor executor() {
+    if (useVirtualThreads) {
+      Optional<? extends Executor> virtualThreadExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+      if (virtualThreadExecutor.isPresent()) {
+        return virtualThreadExecutor.get();
+      }
+    }
+    checkState(executor != null, "executor is required unless virtual threads are available");
+    return executor;
+  }
+
+  ResponseFutureCache responseCache() {
+    return responseCache != null ? responseCache : new DefaultResponseCache();
+  }
+
+  ScheduledExecutorService batchScheduler() {
+    if (batchScheduler != null) {
+      return batchScheduler;
+    }
+    return Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("zenbo-username-batcher-%d")
+        .build());
+  }
+}
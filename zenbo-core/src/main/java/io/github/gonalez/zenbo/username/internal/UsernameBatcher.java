@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.Request.Priority;
+import io.github.gonalez.zenbo.ResponseNotFoundException;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Merges the single username lookups made within a short window into bulk lookups, completing the future of
+ * each username from the result of its batch. A batch is sent once its window elapses, or right away once it
+ * reaches the maximum batch size. Lookups of each {@link Priority} are batched separately, so that background
+ * lookups are never sent along with interactive ones.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+final class UsernameBatcher {
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+  private final BiFunction<List<String>, Priority, ListenableFuture<Map<String, UUID>>> bulkLookup;
+
+  // Guarded by this, the batch of each priority waiting for its window to elapse, if any.
+  private final Map<Priority, PendingBatch> pendingBatches = new EnumMap<>(Priority.class);
+
+  /**
+   * @param bulkLookup looks up the uuids of the given usernames with the given priority, keyed by their
+   *     lowercase username. It is called on the given executor.
+   */
+  UsernameBatcher(
+      long windowNanos, int maxBatchSize,
+      ScheduledExecutorService scheduler, Executor executor,
+      BiFunction<List<String>, Priority, ListenableFuture<Map<String, UUID>>> bulkLookup) {
+    this.windowNanos = windowNanos;
+    this.maxBatchSize = maxBatchSize;
+    this.scheduler = scheduler;
+    this.executor = executor;
+    this.bulkLookup = bulkLookup;
+  }
+
+  /**
+   * Adds the given username to the current batch of the given priority. The returned future fails with a
+   * {@link ResponseNotFoundException} if the username does not exist.
+   */
+  ListenableFuture<UUID> lookup(String username, Priority priority) {
+    String key = username.toLowerCase(Locale.ROOT);
+    PendingBatch fullBatch = null;
+    SettableFuture<UUID> future;
+    synchronized (this) {
+      PendingBatch pending = pendingBatches.get(priority);
+      if (pending == null) {
+        PendingBatch batch = new PendingBatch();
+        // The timer flushes this batch only, so a batch started after it was sent keeps its whole window.
+        batch.scheduledFlush = scheduler.schedule(() -> flush(priority, batch), windowNanos, TimeUnit.NANOSECONDS);
+        pendingBatches.put(priority, batch);
+        pending = batch;
+      }
+      future = pending.futures.get(key);
+      if (future == null) {
+        future = SettableFuture.create();
+        pending.futures.put(key, future);
+        if (pending.futures.size() >= maxBatchSize) {
+          pendingBatches.remove(priority);
+          pending.scheduledFlush.cancel(false);
+          fullBatch = pending;
+        }
+      }
+    }
+    if (fullBatch != null) {
+      send(fullBatch.futures, priority);
+    }
+    return future;
+  }
+
+  private void flush(Priority priority, PendingBatch batch) {
+    synchronized (this) {
+      if (!pendingBatches.remove(priority, batch)) {
+        // Already sent once it was full.
+        return;
+      }
+    }
+    send(batch.futures, priority);
+  }
+
+  private void send(Map<String, SettableFuture<UUID>> batch, Priority priority) {
+    ListenableFuture<Map<String, UUID>> uuids =
+        Futures.submitAsync(() -> bulkLookup.apply(new ArrayList<>(batch.keySet()), priority), executor);
+    Futures.addCallback(uuids, new FutureCallback<Map<String, UUID>>() {
+      @Override
+      public void onSuccess(Map<String, UUID> result) {
+        batch.forEach((username, future) -> {
+          UUID uuid = result.get(username);
+          if (uuid != null) {
+            future.set(uuid);
+          } else {
+            future.setException(new ResponseNotFoundException("No profile found for username " + username));
+          }
+        });
+      }
+
+      @Override
+      public void onFailure(Throwable throwable) {
+        batch.values().forEach(future -> future.setException(throwable));
+      }
+    }, directExecutor());
+  }
+
+  /** The usernames waiting to be sent with the same priority. */
+  private static final class PendingBatch {
+    final Map<String, SettableFuture<UUID>> futures = new LinkedHashMap<>();
+    ScheduledFuture<?> scheduledFlush;
+  }
+}
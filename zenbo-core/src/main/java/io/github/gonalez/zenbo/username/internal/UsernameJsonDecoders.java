@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username.internal;
+
+import com.google.gson.stream.JsonReader;
+import io.github.gonalez.zenbo.JsonDecoder;
+import io.github.gonalez.zenbo.username.*;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * {@link JsonDecoder}s for the responses of the username endpoints, which read only the fields
+ * needed by the responses and skip everything else.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class UsernameJsonDecoders {
+  private UsernameJsonDecoders() {}
+
+  /** Decodes the {@code {"name": ..., "id": ...}} object of the username to uuid endpoint. */
+  public static UsernameToUuidResponse decodeUsernameToUuid(JsonReader reader) throws IOException {
+    ImmutableUsernameToUuidResponse.Builder builder = ImmutableUsernameToUuidResponse.builder();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.nextName().equals("id")) {
+        builder.uuid(StringUuids.uuidFromString(reader.nextString()));
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return builder.build();
+  }
+
+  /**
+   * Decodes the array of profiles of the bulk username to uuid endpoint.
+   *
+   * @return the uuids keyed by the lowercase username.
+   */
+  public static Map<String, UUID> decodeUsernamesToUuids(JsonReader reader) throws IOException {
+    Map<String, UUID> uuids = new HashMap<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      String username = null;
+      UUID uuid = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "id":
+            uuid = StringUuids.uuidFromString(reader.nextString());
+            break;
+          case "name":
+            username = reader.nextString();
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      if (username != null && uuid != null) {
+        uuids.put(username.toLowerCase(Locale.ROOT), uuid);
+      }
+    }
+    reader.endArray();
+    return uuids;
+  }
+
+  /** Decodes the array of {@code {"name": ..., "changedToAt": ...}} objects of the name history endpoint. */
+  public static UuidToNameHistoryResponse decodeUuidToNameHistory(JsonReader reader) throws IOException {
+    ImmutableUuidToNameHistoryResponse.Builder builder = ImmutableUuidToNameHistoryResponse.builder();
+    String currentUsername = null;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (reader.nextName().equals("name")) {
+          currentUsername = reader.nextString();
+          builder.addUsernames(currentUsername);
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
+    reader.endArray();
+    return builder
+        .currentUsername(Optional.ofNullable(currentUsername))
+        .build();
+  }
+
+  /**
+   * Decodes the profile object of the profile and skin/cape endpoint. Its base64 encoded {@code textures}
+   * property is kept encoded, see {@link ProfileTextures#decode(String)}.
+   */
+  public static UuidToProfileAndSkinCapeResponse decodeUuidToProfileAndSkinCape(JsonReader reader)
+      throws IOException {
+    ImmutableUuidToProfileAndSkinCapeResponse.Builder builder = ImmutableUuidToProfileAndSkinCapeResponse.builder();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "name":
+          builder.username(reader.nextString());
+          break;
+        case "properties":
+          decodeTexturesProperty(reader, builder);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return builder.build();
+  }
+
+  /** Reads the encoded value and signature of the {@code textures} property in the properties array, if any. */
+  private static void decodeTexturesProperty(
+      JsonReader reader, ImmutableUuidToProfileAndSkinCapeResponse.Builder builder) throws IOException {
+    boolean found = false;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      String name = null;
+      String value = null;
+      String signature = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "name":
+            name = reader.nextString();
+            break;
+          case "value":
+            value = reader.nextString();
+            break;
+          case "signature":
+            signature = reader.nextString();
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      if (!found && "textures".equals(name) && value != null) {
+        found = true;
+        builder.encodedTextures(value);
+        if (signature != null) {
+          builder.texturesSignature(signature);
+        }
+      }
+    }
+    reader.endArray();
+  }
+}
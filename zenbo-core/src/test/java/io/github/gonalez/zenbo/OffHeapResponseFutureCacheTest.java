@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Futures;
+import io.github.gonalez.zenbo.username.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for the {@link OffHeapResponseFutureCache}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class OffHeapResponseFutureCacheTest {
+  @Test
+  public void testResponsesArePromotedFromOffHeap() throws Exception {
+    OffHeapResponseFutureCache cache = UsernameResponseCodecs.registerAll(OffHeapResponseFutureCache.newBuilder())
+        .onHeapMaximumSize(1)
+        .build();
+    for (int i = 0; i < 100; i++) {
+      cache.put(profileRequest(i), Futures.immediateFuture(
+          ImmutableUuidToProfileAndSkinCapeResponse.builder()
+              .username("player_" + i)
+              .encodedTextures("textures_" + i)
+              .build()));
+      cache.put(usernameRequest(i), Futures.immediateFuture(
+          ImmutableUsernameToUuidResponse.builder()
+              .uuid(new UUID(i, i))
+              .build()));
+    }
+
+    for (int i = 0; i < 100; i++) {
+      UuidToProfileAndSkinCapeResponse profile = cache.get(profileRequest(i)).get();
+      assertEquals("player_" + i, profile.username());
+      assertEquals("textures_" + i, profile.encodedTextures().orElse(null));
+      assertEquals(new UUID(i, i), cache.get(usernameRequest(i)).get().uuid());
+    }
+    assertEquals(200, cache.stats().hitCount());
+
+    cache.remove(usernameRequest(0));
+    assertFalse(cache.contains(usernameRequest(0)));
+  }
+
+  @Test
+  public void testOldestResponsesAreOverwritten() throws Exception {
+    OffHeapResponseFutureCache cache = UsernameResponseCodecs.registerAll(OffHeapResponseFutureCache.newBuilder())
+        .onHeapMaximumSize(0)
+        .offHeapCapacity(1024)
+        .build();
+    for (int i = 0; i < 100; i++) {
+      cache.put(usernameRequest(i), Futures.immediateFuture(
+          ImmutableUsernameToUuidResponse.builder()
+              .uuid(new UUID(i, i))
+              .build()));
+    }
+
+    assertNull(cache.get(usernameRequest(0)).get());
+    assertEquals(new UUID(99, 99), cache.get(usernameRequest(99)).get().uuid());
+  }
+
+  @Test
+  public void testResponsesExpireFromBothTiers() throws Exception {
+    AtomicLong nanos = new AtomicLong();
+    OffHeapResponseFutureCache cache = UsernameResponseCodecs.registerAll(OffHeapResponseFutureCache.newBuilder())
+        .onHeapMaximumSize(1)
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .ticker(new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        })
+        .build();
+    for (int i = 0; i < 2; i++) {
+      cache.put(usernameRequest(i), Futures.immediateFuture(
+          ImmutableUsernameToUuidResponse.builder()
+              .uuid(new UUID(i, i))
+              .build()));
+    }
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+    // Promoted from off-heap, keeping the time it was put at.
+    assertEquals(new UUID(0, 0), cache.get(usernameRequest(0)).get().uuid());
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+    assertNull(cache.get(usernameRequest(0)).get());
+    assertNull(cache.get(usernameRequest(1)).get());
+    assertFalse(cache.contains(usernameRequest(1)));
+  }
+
+  private static UuidToProfileAndSkinCapeRequest profileRequest(int i) {
+    return ImmutableUuidToProfileAndSkinCapeRequest.builder()
+        .uuid(new UUID(i, -i))
+        .build();
+  }
+
+  private static UsernameToUuidRequest usernameRequest(int i) {
+    return ImmutableUsernameToUuidRequest.builder()
+        .username("player_" + i)
+        .build();
+  }
+}
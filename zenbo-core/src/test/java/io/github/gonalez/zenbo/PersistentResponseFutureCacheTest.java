@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import io.github.gonalez.zenbo.username.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link PersistentResponseFutureCache}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class PersistentResponseFutureCacheTest {
+  private static final UUID NOTCH_UUID = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+  private static final UsernameToUuidRequest USERNAME_REQUEST = ImmutableUsernameToUuidRequest.builder()
+      .username("Notch")
+      .build();
+  private static final UuidToProfileAndSkinCapeRequest PROFILE_REQUEST =
+      ImmutableUuidToProfileAndSkinCapeRequest.builder()
+          .uuid(NOTCH_UUID)
+          .build();
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void testResponsesSurviveReopening() throws Exception {
+    Path file = directory.resolve("responses.log");
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      cache.put(USERNAME_REQUEST, Futures.immediateFuture(
+          ImmutableUsernameToUuidResponse.builder()
+              .uuid(NOTCH_UUID)
+              .build()));
+      cache.put(PROFILE_REQUEST, Futures.immediateFuture(
+          ImmutableUuidToProfileAndSkinCapeResponse.builder()
+              .username("Notch")
+              .encodedTextures("dGV4dHVyZXM=")
+              .build()));
+    }
+
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      assertEquals(NOTCH_UUID, cache.get(ImmutableUsernameToUuidRequest.builder()
+          .username("notch")
+          .build()).get().uuid());
+      UuidToProfileAndSkinCapeResponse profile = cache.get(PROFILE_REQUEST).get();
+      assertEquals("Notch", profile.username());
+      assertEquals("dGV4dHVyZXM=", profile.encodedTextures().orElse(null));
+      assertFalse(profile.texturesSignature().isPresent());
+    }
+  }
+
+  @Test
+  public void testRemoveIsPersisted() throws Exception {
+    Path file = directory.resolve("responses.log");
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      cache.put(USERNAME_REQUEST, Futures.immediateFuture(
+          ImmutableUsernameToUuidResponse.builder()
+              .uuid(NOTCH_UUID)
+              .build()));
+      cache.remove(USERNAME_REQUEST);
+    }
+
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      assertFalse(cache.contains(USERNAME_REQUEST));
+      assertNull(cache.get(USERNAME_REQUEST).get());
+    }
+  }
+
+  @Test
+  public void testReplacedResponsesAreCompacted() throws Exception {
+    Path file = directory.resolve("responses.log");
+    UUID lastUuid = null;
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      for (int i = 0; i < 20_000; i++) {
+        lastUuid = new UUID(i, i);
+        cache.put(USERNAME_REQUEST, Futures.immediateFuture(
+            ImmutableUsernameToUuidResponse.builder()
+                .uuid(lastUuid)
+                .build()));
+      }
+    }
+    assertTrue(Files.size(file) < 1 << 20);
+
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      assertEquals(lastUuid, cache.get(USERNAME_REQUEST).get().uuid());
+    }
+  }
+
+  @Test
+  public void testCorruptedTailIsDropped() throws Exception {
+    Path file = directory.resolve("responses.log");
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      cache.put(USERNAME_REQUEST, Futures.immediateFuture(
+          ImmutableUsernameToUuidResponse.builder()
+              .uuid(NOTCH_UUID)
+              .build()));
+    }
+    long size = Files.size(file);
+    Files.write(file, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      assertEquals(NOTCH_UUID, cache.get(USERNAME_REQUEST).get().uuid());
+    }
+    assertEquals(size, Files.size(file));
+  }
+
+  @Test
+  public void testExpiredResponsesAreDropped() throws Exception {
+    Path file = directory.resolve("responses.log");
+    PersistentResponseFutureCache cache = UsernameResponseCodecs.registerAll(PersistentResponseFutureCache.newBuilder())
+        .file(file)
+        .memoryCache(ResponseFutureCache.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(50))
+            .build())
+        .expireAfterWrite(Duration.ofMillis(100))
+        .build();
+    cache.put(USERNAME_REQUEST, Futures.immediateFuture(
+        ImmutableUsernameToUuidResponse.builder()
+            .uuid(NOTCH_UUID)
+            .build()));
+    Thread.sleep(200);
+    assertNull(cache.get(USERNAME_REQUEST).get());
+    // Waits for the writer to drop the expired record.
+    cache.close();
+    assertFalse(cache.contains(USERNAME_REQUEST));
+  }
+
+  @Test
+  public void testPromotedResponsesKeepTheirWriteTime() throws Exception {
+    Path file = directory.resolve("responses.log");
+    try (PersistentResponseFutureCache cache = newCache(file)) {
+      cache.put(USERNAME_REQUEST, Futures.immediateFuture(
+          ImmutableUsernameToUuidResponse.builder()
+              .uuid(NOTCH_UUID)
+              .build()));
+    }
+    Thread.sleep(200);
+
+    ResponseFutureCache memoryCache = ResponseFutureCache.newBuilder()
+        .expireAfterWrite(Duration.ofMillis(100))
+        .build();
+    try (PersistentResponseFutureCache cache = UsernameResponseCodecs.registerAll(
+        PersistentResponseFutureCache.newBuilder())
+        .file(file)
+        .memoryCache(memoryCache)
+        .build()) {
+      assertEquals(NOTCH_UUID, cache.get(USERNAME_REQUEST).get().uuid());
+      // Written longer ago than the memory cache keeps responses for.
+      assertFalse(memoryCache.contains(USERNAME_REQUEST));
+    }
+  }
+
+  private static PersistentResponseFutureCache newCache(Path file) throws IOException {
+    return UsernameResponseCodecs.registerAll(PersistentResponseFutureCache.newBuilder())
+        .file(file)
+        .build();
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link RateLimitedTransport}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class RateLimitedTransportTest {
+  private static final TransportRequest REQUEST = ImmutableTransportRequest.builder()
+      .url("https://api.mojang.com/users/profiles/minecraft/Notch")
+      .build();
+
+  @Test
+  public void testTooManyRequestsIsRetried() throws Exception {
+    Queue<TransportResponse> responses = new ArrayDeque<>();
+    responses.add(new FakeResponse(429, "0"));
+    responses.add(new FakeResponse(503, null));
+    responses.add(new FakeResponse(200, null));
+    AtomicInteger calls = new AtomicInteger();
+    HttpTransport transport = RateLimitedTransport.newBuilder()
+        .transport(request -> {
+          calls.incrementAndGet();
+          return Futures.immediateFuture(responses.remove());
+        })
+        .backoff(Duration.ofMillis(1), Duration.ofMillis(10))
+        .build();
+
+    assertEquals(200, transport.execute(REQUEST).get().code());
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void testLastResponseIsReturnedOnceRetriesAreExhausted() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    HttpTransport transport = RateLimitedTransport.newBuilder()
+        .transport(request -> {
+          calls.incrementAndGet();
+          return Futures.immediateFuture(new FakeResponse(500, null));
+        })
+        .maxRetries(2)
+        .backoff(Duration.ZERO, Duration.ZERO)
+        .build();
+
+    assertEquals(500, transport.execute(REQUEST).get().code());
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void testRetryableResponseCodesAreConfigurable() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    HttpTransport transport = RateLimitedTransport.newBuilder()
+        .transport(request -> {
+          calls.incrementAndGet();
+          return Futures.immediateFuture(new FakeResponse(503, null));
+        })
+        .retryableResponseCodes(responseCode -> responseCode == 429)
+        .backoff(Duration.ZERO, Duration.ZERO)
+        .build();
+
+    assertEquals(503, transport.execute(REQUEST).get().code());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testDelayedBlockingSendsRunConcurrently() throws Exception {
+    Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    CyclicBarrier retries = new CyclicBarrier(2);
+    HttpTransport transport = RateLimitedTransport.newBuilder()
+        .transport(request -> {
+          if (attempts.merge(request.url(), 1, Integer::sum) == 1) {
+            return Futures.immediateFuture(new FakeResponse(429, null));
+          }
+          // Blocks like a blocking transport until the retry of the other request is sent too.
+          try {
+            retries.await(5, TimeUnit.SECONDS);
+            return Futures.immediateFuture(new FakeResponse(200, null));
+          } catch (Exception e) {
+            return Futures.immediateFuture(new FakeResponse(500, null));
+          }
+        })
+        .maxRetries(1)
+        .backoff(Duration.ofMillis(1), Duration.ofMillis(1))
+        .build();
+
+    ListenableFuture<TransportResponse> first = transport.execute(REQUEST);
+    ListenableFuture<TransportResponse> second = transport.execute(ImmutableTransportRequest.builder()
+        .url("https://api.mojang.com/users/profiles/minecraft/jeb_")
+        .build());
+    assertEquals(200, first.get(10, TimeUnit.SECONDS).code());
+    assertEquals(200, second.get(10, TimeUnit.SECONDS).code());
+  }
+
+  @Test
+  public void testExcessRequestsAreQueuedPerHost() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    HttpTransport transport = RateLimitedTransport.newBuilder()
+        .transport(request -> {
+          calls.incrementAndGet();
+          return Futures.immediateFuture(new FakeResponse(200, null));
+        })
+        .defaultRateLimiter(() -> RateLimiter.tokenBucket(1, Duration.ofMillis(200)))
+        .build();
+
+    assertTrue(transport.execute(REQUEST).isDone());
+    assertTrue(transport.execute(ImmutableTransportRequest.builder()
+        .url("https://sessionserver.mojang.com/session/minecraft/profile/069a79f444e94726a5befca90e38aaf5")
+        .build()).isDone());
+    // The second request to the same host must wait for the bucket to refill.
+    assertFalse(transport.execute(REQUEST).isDone());
+    assertEquals(2, calls.get());
+  }
+
+  private static final class FakeResponse implements TransportResponse {
+    private final int code;
+    private final String retryAfter;
+
+    FakeResponse(int code, String retryAfter) {
+      this.code = code;
+      this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public int code() {
+      return code;
+    }
+
+    @Override
+    public Optional<String> header(String name) {
+      return name.equals("Retry-After") ? Optional.ofNullable(retryAfter) : Optional.empty();
+    }
+
+    @Override
+    public InputStream body() {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidResponse;
+import io.github.gonalez.zenbo.username.UsernameToUuidResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link RequestCoalescer}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class RequestCoalescerTest {
+  private final RequestCoalescer coalescer = new RequestCoalescer();
+
+  @Test
+  public void testConcurrentLookupsShareOneCall() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    SettableFuture<UsernameToUuidResponse> response = SettableFuture.create();
+    LookupKey key = ImmutableUsernameToUuidRequest.builder().username("Notch").build().lookupKey();
+
+    ListenableFuture<UsernameToUuidResponse> first = coalescer.coalesce(key, () -> {
+      calls.incrementAndGet();
+      return response;
+    });
+    ListenableFuture<UsernameToUuidResponse> second = coalescer.coalesce(
+        ImmutableUsernameToUuidRequest.builder().username("NOTCH").build().lookupKey(), () -> {
+          calls.incrementAndGet();
+          return response;
+        });
+    assertEquals(1, coalescer.inFlightCount());
+
+    UsernameToUuidResponse uuidResponse = ImmutableUsernameToUuidResponse.builder()
+        .uuid(UUID.randomUUID())
+        .build();
+    response.set(uuidResponse);
+    assertEquals(1, calls.get());
+    assertSame(uuidResponse, first.get());
+    assertSame(uuidResponse, second.get());
+    assertEquals(0, coalescer.inFlightCount());
+  }
+
+  @Test
+  public void testCancellingDoesNotAffectOtherCallers() throws Exception {
+    SettableFuture<UsernameToUuidResponse> response = SettableFuture.create();
+    LookupKey key = LookupKey.of(Object.class, "key");
+
+    ListenableFuture<UsernameToUuidResponse> first = coalescer.coalesce(key, () -> response);
+    ListenableFuture<UsernameToUuidResponse> second = coalescer.coalesce(key, () -> response);
+    first.cancel(true);
+
+    assertFalse(second.isDone());
+    response.set(ImmutableUsernameToUuidResponse.builder().uuid(UUID.randomUUID()).build());
+    assertNotNull(second.get());
+  }
+
+  @Test
+  public void testFailedCallIsNotKeptInFlight() {
+    LookupKey key = LookupKey.of(Object.class, "key");
+    ListenableFuture<UsernameToUuidResponse> future = coalescer.coalesce(key, () -> {
+      throw new ResponseFailureException();
+    });
+    assertTrue(future.isDone());
+    assertEquals(0, coalescer.inFlightCount());
+    assertTrue(coalescer.coalesce(key, () -> Futures.<UsernameToUuidResponse>immediateFuture(null)).isDone());
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.Request.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Tests for {@link RequestScheduler}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class RequestSchedulerTest {
+  @Test
+  public void testBackgroundLoadDoesNotDelayInteractive() throws Exception {
+    RequestScheduler scheduler = RequestScheduler.newBuilder()
+        .maxConcurrentRequests(Priority.BACKGROUND, 1)
+        .build();
+    List<SettableFuture<String>> background = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      scheduler.schedule(Priority.BACKGROUND, () -> {
+        SettableFuture<String> future = SettableFuture.create();
+        background.add(future);
+        return future;
+      });
+    }
+    assertEquals(1, background.size());
+    assertEquals(9, scheduler.queuedCount(Priority.BACKGROUND));
+
+    ListenableFuture<String> interactive =
+        scheduler.schedule(Priority.INTERACTIVE, () -> SettableFuture.create());
+    assertEquals(1, scheduler.runningCount(Priority.INTERACTIVE));
+    assertFalse(interactive.isDone());
+
+    background.get(0).set("done");
+    assertEquals(2, background.size());
+  }
+
+  @Test
+  public void testRejectsWhenQueueIsFull() {
+    RequestScheduler scheduler = RequestScheduler.newBuilder()
+        .maxConcurrentRequests(Priority.INTERACTIVE, 1)
+        .maxQueuedRequests(Priority.INTERACTIVE, 1)
+        .build();
+    scheduler.schedule(Priority.INTERACTIVE, () -> SettableFuture.create());
+    ListenableFuture<Object> queued = scheduler.schedule(Priority.INTERACTIVE, () -> SettableFuture.create());
+    ListenableFuture<Object> rejected = scheduler.schedule(Priority.INTERACTIVE, () -> SettableFuture.create());
+    assertFalse(queued.isDone());
+    ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+    assertTrue(exception.getCause() instanceof RejectedExecutionException);
+  }
+}
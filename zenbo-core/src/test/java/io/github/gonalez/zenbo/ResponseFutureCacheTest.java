@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.internal.DefaultResponseCache;
+import io.github.gonalez.zenbo.username.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for the {@link ResponseFutureCache}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class ResponseFutureCacheTest {
+  private static final UUID NOTCH_UUID = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+  };
+
+  @Test
+  public void testExpireAfterWriteForRequestType() throws Exception {
+    ResponseFutureCache cache = ResponseFutureCache.newBuilder()
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .expireAfterWrite(UuidToProfileAndSkinCapeRequest.class, Duration.ofMinutes(1))
+        .ticker(ticker)
+        .build();
+    UsernameToUuidRequest usernameRequest = ImmutableUsernameToUuidRequest.builder()
+        .username("Notch")
+        .build();
+    UuidToProfileAndSkinCapeRequest profileRequest = ImmutableUuidToProfileAndSkinCapeRequest.builder()
+        .uuid(NOTCH_UUID)
+        .build();
+    cache.put(usernameRequest, usernameResponse());
+    cache.put(profileRequest, Futures.immediateFuture(
+        ImmutableUuidToProfileAndSkinCapeResponse.builder()
+            .username("Notch")
+            .build()));
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    assertTrue(cache.contains(usernameRequest));
+    assertFalse(cache.contains(profileRequest));
+    assertNull(cache.get(profileRequest).get());
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(10));
+    assertNull(cache.get(usernameRequest).get());
+    assertEquals(2, cache.stats().evictionCount());
+  }
+
+  @Test
+  public void testMaximumSize() {
+    ResponseFutureCache cache = ResponseFutureCache.newBuilder()
+        .maximumSize(1)
+        .build();
+    UsernameToUuidRequest first = ImmutableUsernameToUuidRequest.builder().username("first").build();
+    UsernameToUuidRequest second = ImmutableUsernameToUuidRequest.builder().username("second").build();
+    cache.put(first, usernameResponse());
+    cache.put(second, usernameResponse());
+
+    assertFalse(cache.contains(first));
+    assertTrue(cache.contains(second));
+    assertEquals(1, cache.stats().evictionCount());
+  }
+
+  @Test
+  public void testMaximumWeightWeighsResponses() {
+    ResponseFutureCache cache = ResponseFutureCache.newBuilder()
+        .maximumWeight(1000, (request, response) -> response instanceof UuidToProfileAndSkinCapeResponse
+            ? ((UuidToProfileAndSkinCapeResponse) response).encodedTextures().orElse("").length()
+            : 1)
+        .build();
+    UuidToProfileAndSkinCapeRequest profileRequest = ImmutableUuidToProfileAndSkinCapeRequest.builder()
+        .uuid(NOTCH_UUID)
+        .build();
+    SettableFuture<UuidToProfileAndSkinCapeResponse> profile = SettableFuture.create();
+    cache.put(profileRequest, profile);
+    assertTrue(cache.contains(profileRequest));
+
+    // Heavier than the whole cache once its response is known.
+    profile.set(ImmutableUuidToProfileAndSkinCapeResponse.builder()
+        .username("Notch")
+        .encodedTextures("a".repeat(2000))
+        .build());
+    assertFalse(cache.contains(profileRequest));
+
+    UsernameToUuidRequest usernameRequest = ImmutableUsernameToUuidRequest.builder().username("Notch").build();
+    cache.put(usernameRequest, usernameResponse());
+    assertTrue(cache.contains(usernameRequest));
+  }
+
+  @Test
+  public void testStats() {
+    ResponseFutureCache cache = ResponseFutureCache.newBuilder().build();
+    UsernameToUuidRequest request = ImmutableUsernameToUuidRequest.builder().username("Notch").build();
+    cache.get(request);
+    cache.put(request, usernameResponse());
+    cache.get(request);
+    cache.get(request);
+
+    ResponseFutureCacheStats stats = cache.stats();
+    assertEquals(2, stats.hitCount());
+    assertEquals(1, stats.missCount());
+  }
+
+  @Test
+  public void testNotFoundIsCachedWithItsOwnExpiration() throws Exception {
+    ResponseFutureCache cache = ResponseFutureCache.newBuilder()
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .expireNotFoundAfterWrite(Duration.ofMinutes(1))
+        .ticker(ticker)
+        .build();
+    UsernameToUuidRequest notFoundRequest = ImmutableUsernameToUuidRequest.builder()
+        .username("NoSuchUser")
+        .build();
+    UsernameToUuidRequest failedRequest = ImmutableUsernameToUuidRequest.builder()
+        .username("Notch")
+        .build();
+    cache.put(notFoundRequest, Futures.immediateFailedFuture(new ResponseNotFoundException()));
+    cache.put(failedRequest, Futures.immediateFailedFuture(new ResponseFailureException()));
+
+    assertTrue(cache.contains(notFoundRequest));
+    assertFalse(cache.contains(failedRequest));
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    assertFalse(cache.contains(notFoundRequest));
+  }
+
+  @Test
+  public void testStaleResponseIsServedWhileRefreshed() throws Exception {
+    ResponseFutureCache cache = ResponseFutureCache.newBuilder()
+        .refreshAfterWrite(Duration.ofMinutes(1))
+        .ticker(ticker)
+        .build();
+    UsernameToUuidRequest request = ImmutableUsernameToUuidRequest.builder()
+        .username("Notch")
+        .options(ImmutableRequestOptions.builder()
+            .cacheable(true)
+            .build())
+        .build();
+    UUID refreshedUuid = new UUID(1, 1);
+    SettableFuture<UsernameToUuidResponse> refresh = SettableFuture.create();
+    AtomicInteger lookups = new AtomicInteger();
+    Callable<ListenableFuture<UsernameToUuidResponse>> lookup = () -> {
+      lookups.incrementAndGet();
+      return refresh;
+    };
+    cache.put(request, usernameResponse());
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    assertEquals(NOTCH_UUID, Responses.buildCachingFutureForRequest(
+        request, cache, directExecutor(), lookup).get().uuid());
+    assertEquals(NOTCH_UUID, Responses.buildCachingFutureForRequest(
+        request, cache, directExecutor(), lookup).get().uuid());
+    assertEquals(1, lookups.get());
+
+    refresh.set(ImmutableUsernameToUuidResponse.builder()
+        .uuid(refreshedUuid)
+        .build());
+    assertEquals(refreshedUuid, cache.get(request).get().uuid());
+    assertFalse(cache.claimRefresh(request));
+  }
+
+  @Test
+  public void testRequestsForTheSameLookupShareEntries() {
+    for (ResponseFutureCache cache : new ResponseFutureCache[] {
+        new DefaultResponseCache(), ResponseFutureCache.newBuilder().build()}) {
+      cache.put(ImmutableUsernameToUuidRequest.builder()
+          .username("Notch")
+          .build(), usernameResponse());
+
+      assertTrue(cache.contains(ImmutableUsernameToUuidRequest.builder()
+          .username("NOTCH")
+          .options(ImmutableRequestOptions.builder()
+              .cacheable(true)
+              .build())
+          .listener(new Request.RequestListener<>() {
+            @Override
+            public void onSuccess(UsernameToUuidResponse response) {}
+
+            @Override
+            public void onFailure(Throwable throwable) {}
+          })
+          .build()));
+    }
+  }
+
+  private static ListenableFuture<UsernameToUuidResponse> usernameResponse() {
+    return Futures.immediateFuture(
+        ImmutableUsernameToUuidResponse.builder()
+            .uuid(NOTCH_UUID)
+            .build());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.base.Strings;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tests for {@link ZenboClient}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class ZenboClientTest {
+  private final MockWebServer server = new MockWebServer();
+  private ZenboClient client;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    server.start();
+    client = ZenboClient.newBuilder()
+        .hostOptions(server.getHostName(), ImmutableHostOptions.builder()
+            .maxResponseBodyBytes(16)
+            .build())
+        .build();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    client.close();
+    server.shutdown();
+  }
+
+  @Test
+  public void testResponseWithinLimit() throws Exception {
+    server.enqueue(new MockResponse().setBody("{}"));
+    try (TransportResponse response = client.transport().execute(request()).get()) {
+      assertEquals(200, response.code());
+      assertEquals("{}", new String(response.body().readAllBytes()));
+    }
+  }
+
+  @Test
+  public void testResponseOverLimitFails() {
+    server.enqueue(new MockResponse().setBody(Strings.repeat("a", 17)));
+    ExecutionException exception =
+        assertThrows(ExecutionException.class, () -> client.transport().execute(request()).get());
+    assertTrue(exception.getCause() instanceof IOException);
+  }
+
+  @Test
+  public void testChunkedResponseOverLimitFailsWhileRead() throws Exception {
+    server.enqueue(new MockResponse().setChunkedBody(Strings.repeat("a", 64), 8));
+    try (TransportResponse response = client.transport().execute(request()).get()) {
+      assertThrows(IOException.class, () -> response.body().readAllBytes());
+    }
+  }
+
+  private TransportRequest request() {
+    return ImmutableTransportRequest.builder()
+        .url(server.url("/").toString())
+        .build();
+  }
+}
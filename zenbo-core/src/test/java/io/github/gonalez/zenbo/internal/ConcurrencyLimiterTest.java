@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link ConcurrencyLimiter}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class ConcurrencyLimiterTest {
+  @Test
+  public void testQueuesTasksOverLimit() throws Exception {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+    List<SettableFuture<Integer>> started = new ArrayList<>();
+    List<ListenableFuture<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      results.add(limiter.submit(() -> {
+        SettableFuture<Integer> future = SettableFuture.create();
+        started.add(future);
+        return future;
+      }));
+    }
+    assertEquals(2, started.size());
+    assertEquals(2, limiter.pendingCount());
+
+    started.get(0).set(0);
+    assertEquals(3, started.size());
+    assertEquals(0, results.get(0).get());
+
+    started.get(1).set(1);
+    started.get(2).set(2);
+    started.get(3).set(3);
+    assertEquals(3, results.get(3).get());
+    assertEquals(0, limiter.runningCount());
+  }
+
+  @Test
+  public void testCompletedTasksDoNotOverflowStack() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+    SettableFuture<Integer> first = SettableFuture.create();
+    limiter.submit(() -> first);
+    ListenableFuture<Integer> last = null;
+    for (int i = 0; i < 100_000; i++) {
+      int value = i;
+      last = limiter.submit(() -> Futures.immediateFuture(value));
+    }
+    first.set(-1);
+    assertTrue(last.isDone());
+    assertEquals(0, limiter.runningCount());
+  }
+
+  @Test
+  public void testQueuedTasksStartOnExecutor() throws Exception {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+    List<Runnable> queuedStarts = new ArrayList<>();
+    SettableFuture<Integer> first = SettableFuture.create();
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+    limiter.submit(() -> {
+      threads.add(Thread.currentThread());
+      return first;
+    }, queuedStarts::add);
+    ListenableFuture<Integer> second = limiter.submit(() -> {
+      threads.add(Thread.currentThread());
+      return Futures.immediateFuture(2);
+    }, queuedStarts::add);
+    assertEquals(List.of(caller), threads);
+    assertTrue(queuedStarts.isEmpty());
+
+    first.set(1);
+    assertEquals(1, queuedStarts.size());
+    assertFalse(second.isDone());
+    Thread executorThread = new Thread(queuedStarts.get(0));
+    executorThread.start();
+    executorThread.join();
+    assertEquals(List.of(caller, executorThread), threads);
+    assertEquals(2, second.get());
+    assertEquals(0, limiter.runningCount());
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.gonalez.zenbo.EndpointStats;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Histogram}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class HistogramTest {
+  @Test
+  public void testBucketsCoverValues() {
+    for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE}) {
+      int bucket = Histogram.bucketOf(value);
+      assertTrue(Histogram.highestValueOf(bucket) >= value);
+      assertTrue(bucket == 0 || Histogram.highestValueOf(bucket - 1) < value);
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    EndpointStats.Distribution distribution = histogram.snapshot();
+    assertEquals(1000, distribution.count());
+    assertEquals(1_000_000, distribution.max());
+    assertEquals(500_000, distribution.p50(), 500_000 * 0.125);
+    assertEquals(990_000, distribution.p99(), 990_000 * 0.125);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.gonalez.zenbo.LookupKey;
+import io.github.gonalez.zenbo.username.UsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.UuidToProfileAndSkinCapeRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link LookupKeyMap}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class LookupKeyMapTest {
+  @Test
+  public void testKeysOfDifferentTypesAreDistinct() {
+    LookupKeyMap<String> map = new LookupKeyMap<>();
+    UUID uuid = UUID.randomUUID();
+    map.put(LookupKey.of(UuidToProfileAndSkinCapeRequest.class, uuid), "profile");
+    map.put(LookupKey.of(UsernameToUuidRequest.class, uuid), "username");
+
+    assertEquals("profile", map.get(LookupKey.of(UuidToProfileAndSkinCapeRequest.class,
+        new UUID(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()))));
+    assertEquals("username", map.get(LookupKey.of(UsernameToUuidRequest.class, uuid)));
+    assertEquals(2, map.size());
+  }
+
+  @Test
+  public void testConditionalRemove() {
+    LookupKeyMap<String> map = new LookupKeyMap<>();
+    LookupKey key = LookupKey.of(UsernameToUuidRequest.class, "notch");
+    map.put(key, "first");
+
+    assertFalse(map.remove(key, new String("first")));
+    assertTrue(map.remove(key, map.get(key)));
+    assertNull(map.get(key));
+  }
+
+  @Test
+  public void testMatchesHashMap() {
+    LookupKeyMap<Integer> map = new LookupKeyMap<>();
+    Map<LookupKey, Integer> expected = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      int id = random.nextInt(2_000);
+      LookupKey key = id % 2 == 0
+          ? LookupKey.of(UuidToProfileAndSkinCapeRequest.class, new UUID(id, id >>> 3))
+          : LookupKey.of(UsernameToUuidRequest.class, "player_" + id);
+      switch (random.nextInt(3)) {
+        case 0:
+          assertEquals(expected.put(key, i), map.put(key, i));
+          break;
+        case 1:
+          assertEquals(expected.remove(key), map.remove(key));
+          break;
+        default:
+          assertEquals(expected.get(key), map.get(key));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+  }
+}
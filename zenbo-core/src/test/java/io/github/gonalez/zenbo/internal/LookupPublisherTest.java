@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import io.github.gonalez.zenbo.LookupResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for {@link LookupPublisher}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class LookupPublisherTest {
+  @Test
+  public void testBoundsInFlightLookups() {
+    List<SettableFuture<Integer>> started = new ArrayList<>();
+    LookupPublisher<Integer, Integer> publisher = new LookupPublisher<>(
+        IntStream.range(0, 5).iterator(),
+        key -> {
+          SettableFuture<Integer> future = SettableFuture.create();
+          started.add(future);
+          return future;
+        },
+        2);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(2, started.size());
+
+    started.get(1).set(10);
+    assertEquals(3, started.size());
+    assertEquals(1, subscriber.results.size());
+    assertEquals(1, subscriber.results.get(0).key());
+    assertEquals(10, subscriber.results.get(0).value().get());
+
+    started.get(0).setException(new IllegalStateException());
+    started.get(2).set(12);
+    started.get(3).set(13);
+    assertFalse(subscriber.completed);
+    started.get(4).set(14);
+    assertEquals(5, subscriber.results.size());
+    assertFalse(subscriber.results.get(1).isSuccessful());
+    assertTrue(subscriber.results.get(1).failure().get() instanceof IllegalStateException);
+    assertTrue(subscriber.completed);
+  }
+
+  @Test
+  public void testTakesKeysOnDemand() {
+    Iterator<Integer> keys = IntStream.range(0, 100_000).iterator();
+    LookupPublisher<Integer, Integer> publisher =
+        new LookupPublisher<>(keys, key -> Futures.immediateFuture(key * 2), 16);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(3);
+    assertEquals(3, subscriber.results.size());
+    assertEquals(3, keys.next());
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(100_000 - 1, subscriber.results.size());
+    assertTrue(subscriber.completed);
+  }
+
+  @Test
+  public void testCancelStopsLookups() {
+    List<SettableFuture<Integer>> started = new ArrayList<>();
+    LookupPublisher<Integer, Integer> publisher = new LookupPublisher<>(
+        IntStream.range(0, 5).iterator(),
+        key -> {
+          SettableFuture<Integer> future = SettableFuture.create();
+          started.add(future);
+          return future;
+        },
+        1);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    publisher.subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    subscriber.subscription.cancel();
+    started.get(0).set(0);
+    assertEquals(1, started.size());
+    assertTrue(subscriber.results.isEmpty());
+    assertFalse(subscriber.completed);
+
+    RecordingSubscriber second = new RecordingSubscriber();
+    publisher.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  private static final class RecordingSubscriber implements Flow.Subscriber<LookupResult<Integer, Integer>> {
+    final List<LookupResult<Integer, Integer>> results = new ArrayList<>();
+    Flow.Subscription subscription;
+    boolean completed;
+    Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(LookupResult<Integer, Integer> result) {
+      results.add(result);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+}
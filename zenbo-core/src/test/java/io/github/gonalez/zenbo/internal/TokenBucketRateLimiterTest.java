@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for the {@link TokenBucketRateLimiter}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class TokenBucketRateLimiterTest {
+  private final AtomicLong nanos = new AtomicLong();
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+  };
+
+  @Test
+  public void testExcessReservationsAreQueued() {
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(2, Duration.ofSeconds(2), ticker);
+    assertEquals(0, rateLimiter.reserve());
+    assertEquals(0, rateLimiter.reserve());
+    assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.reserve());
+    assertEquals(TimeUnit.SECONDS.toNanos(2), rateLimiter.reserve());
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    assertEquals(0, rateLimiter.reserve());
+    assertEquals(0, rateLimiter.reserve());
+    assertTrue(rateLimiter.reserve() > 0);
+  }
+
+  @Test
+  public void testPause() {
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, Duration.ofSeconds(10), ticker);
+    rateLimiter.pause(Duration.ofSeconds(5));
+    assertEquals(TimeUnit.SECONDS.toNanos(5), rateLimiter.reserve());
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(5));
+    assertEquals(0, rateLimiter.reserve());
+  }
+}
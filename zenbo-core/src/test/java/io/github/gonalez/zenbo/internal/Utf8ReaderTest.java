@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for the {@link Utf8Reader}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class Utf8ReaderTest {
+  @Test
+  public void testDecodesMultiByteSequences() throws Exception {
+    String string = "{\"name\":\"\u00D1and\u00FA \u2713 \uD83D\uDE00\"}";
+    assertEquals(string, readAll(string.getBytes(StandardCharsets.UTF_8), 1024));
+  }
+
+  @Test
+  public void testDecodesAcrossBufferBoundaries() throws Exception {
+    StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < 300; i++) {
+      stringBuilder.append("a\u00E9\u2713\uD83D\uDE00");
+    }
+    String string = stringBuilder.toString();
+    assertEquals(string, readAll(string.getBytes(StandardCharsets.UTF_8), 1));
+    assertEquals(string, readAll(string.getBytes(StandardCharsets.UTF_8), 7));
+  }
+
+  @Test
+  public void testReplacesMalformedInput() throws Exception {
+    assertEquals("a\uFFFDb\uFFFD\uFFFD", readAll(new byte[]{'a', (byte) 0xc3, 'b', (byte) 0xe2, (byte) 0x9c}, 16));
+    assertEquals("\uFFFD\uFFFD", readAll(new byte[]{(byte) 0xc0, (byte) 0x80}, 16));
+  }
+
+  private static String readAll(byte[] bytes, int charsPerRead) throws IOException {
+    StringBuilder stringBuilder = new StringBuilder();
+    try (Reader reader = new Utf8Reader(new ByteArrayInputStream(bytes))) {
+      char[] chars = new char[charsPerRead];
+      int read;
+      while ((read = reader.read(chars, 0, chars.length)) != -1) {
+        stringBuilder.append(chars, 0, read);
+      }
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link IdentityIndex}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class IdentityIndexTest {
+  private static final UUID NOTCH_UUID = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+  private static final UUID OTHER_UUID = UUID.fromString("51800622-9dae-4b23-84a7-26d6a27c60db");
+
+  private final IdentityIndex index = IdentityIndex.newBuilder().build();
+
+  @Test
+  public void testProfileIndexesBothDirections() {
+    index.recordProfile(NOTCH_UUID, "Notch");
+    assertEquals(Optional.of(NOTCH_UUID), index.uuidOf("NOTCH"));
+    assertEquals(Optional.of("Notch"), index.usernameOf(NOTCH_UUID));
+  }
+
+  @Test
+  public void testNameChangeUnmapsPreviousName() {
+    index.recordProfile(NOTCH_UUID, "Notch");
+    index.recordProfile(NOTCH_UUID, "Jeb");
+    assertFalse(index.uuidOf("notch").isPresent());
+    assertEquals(Optional.of(NOTCH_UUID), index.uuidOf("jeb"));
+    assertEquals(Optional.of("Jeb"), index.usernameOf(NOTCH_UUID));
+  }
+
+  @Test
+  public void testUsernameLookupOfNameChangeUnmapsPreviousName() {
+    index.recordProfile(NOTCH_UUID, "Notch");
+    index.recordUsername("Jeb", NOTCH_UUID);
+    assertFalse(index.uuidOf("notch").isPresent());
+    assertEquals(Optional.of(NOTCH_UUID), index.uuidOf("jeb"));
+    assertFalse(index.usernameOf(NOTCH_UUID).isPresent());
+  }
+
+  @Test
+  public void testNameChangeInvalidatesNameHistory() {
+    index.recordNameHistory(NOTCH_UUID, ImmutableUuidToNameHistoryResponse.builder()
+        .addUsernames("Dizzin", "Notch")
+        .currentUsername("Notch")
+        .build());
+    index.recordUsername("Jeb", NOTCH_UUID);
+    assertFalse(index.nameHistoryOf(NOTCH_UUID).isPresent());
+
+    index.recordNameHistory(NOTCH_UUID, ImmutableUuidToNameHistoryResponse.builder()
+        .addUsernames("Notch", "Jeb")
+        .currentUsername("Jeb")
+        .build());
+    assertTrue(index.nameHistoryOf(NOTCH_UUID).isPresent());
+    index.recordProfile(NOTCH_UUID, "Herobrine");
+    assertFalse(index.nameHistoryOf(NOTCH_UUID).isPresent());
+    assertFalse(index.uuidOf("jeb").isPresent());
+  }
+
+  @Test
+  public void testReusedNameUnmapsPreviousOwner() {
+    index.recordProfile(NOTCH_UUID, "Notch");
+    index.recordUsername("notch", OTHER_UUID);
+    assertEquals(Optional.of(OTHER_UUID), index.uuidOf("Notch"));
+    assertFalse(index.usernameOf(NOTCH_UUID).isPresent());
+  }
+
+  @Test
+  public void testNameHistoryRecordsCurrentName() {
+    index.recordNameHistory(NOTCH_UUID, ImmutableUuidToNameHistoryResponse.builder()
+        .addUsernames("Dizzin", "Qentin")
+        .currentUsername("Qentin")
+        .build());
+    assertEquals(Optional.of("Qentin"), index.usernameOf(NOTCH_UUID));
+    assertEquals(Optional.of(NOTCH_UUID), index.uuidOf("qentin"));
+    assertFalse(index.uuidOf("dizzin").isPresent());
+    assertTrue(index.nameHistoryOf(NOTCH_UUID).isPresent());
+  }
+
+  @Test
+  public void testNameHistoryRecordsNameChangedBackTo() {
+    index.recordProfile(NOTCH_UUID, "Qentin");
+    index.recordNameHistory(NOTCH_UUID, ImmutableUuidToNameHistoryResponse.builder()
+        .addUsernames("Dizzin", "Qentin")
+        .currentUsername("Dizzin")
+        .build());
+    assertEquals(Optional.of("Dizzin"), index.usernameOf(NOTCH_UUID));
+    assertEquals(Optional.of(NOTCH_UUID), index.uuidOf("dizzin"));
+    assertFalse(index.uuidOf("qentin").isPresent());
+  }
+}
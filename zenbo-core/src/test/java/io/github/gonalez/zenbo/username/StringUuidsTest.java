@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link StringUuids}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class StringUuidsTest {
+  private static final UUID NOTCH_UUID = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+  @Test
+  public void testUuidFromString() {
+    assertEquals(NOTCH_UUID, StringUuids.uuidFromString("069a79f444e94726a5befca90e38aaf5"));
+    assertEquals(NOTCH_UUID, StringUuids.uuidFromString("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+    assertEquals(NOTCH_UUID, StringUuids.uuidFromString("069A79F444E94726A5BEFCA90E38AAF5"));
+    assertEquals(NOTCH_UUID, StringUuids.uuidFromString(
+        new StringBuilder("{\"id\":\"069a79f444e94726a5befca90e38aaf5\"}"), 7, 39));
+  }
+
+  @Test
+  public void testUuidFromBytes() {
+    byte[] bytes = "{\"id\":\"069a79f4-44e9-4726-a5be-fca90e38aaf5\"}".getBytes(StandardCharsets.US_ASCII);
+    assertEquals(NOTCH_UUID, StringUuids.uuidFromBytes(bytes, 7, 36));
+  }
+
+  @Test
+  public void testInvalidUuids() {
+    assertThrows(IllegalArgumentException.class, () -> StringUuids.uuidFromString("069a79f444e94726a5befca90e38aaf"));
+    assertThrows(IllegalArgumentException.class, () -> StringUuids.uuidFromString("069a79f444e94726a5befca90e38aafg"));
+    assertThrows(IllegalArgumentException.class, () -> StringUuids.uuidFromString("069a79f4444e9-4726-a5be-fca90e38aaf5"));
+  }
+
+  @Test
+  public void testToUndashedString() {
+    assertEquals("069a79f444e94726a5befca90e38aaf5", StringUuids.toUndashedString(NOTCH_UUID));
+    UUID uuid = UUID.randomUUID();
+    assertEquals(uuid, StringUuids.uuidFromString(StringUuids.toUndashedString(uuid)));
+  }
+}
@@ -20,38 +20,55 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import com.google.common.util.concurrent.MoreExecutors;
+import io.github.gonalez.zenbo.HttpTransport;
 import io.github.gonalez.zenbo.ImmutableRequestOptions;
 import io.github.gonalez.zenbo.ResponseFailureException;
 import io.github.gonalez.zenbo.ResponseFutureCache;
+import io.github.gonalez.zenbo.ZenboClient;
 import io.github.gonalez.zenbo.internal.DefaultResponseCache;
+import io.github.gonalez.zenbo.testing.MockMojangServer;
 import io.github.gonalez.zenbo.username.internal.DefaultUsernameApi;
-import okhttp3.OkHttpClient;
 import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.net.http.HttpClient;
 import java.util.UUID;
 import java.util.concurrent.*;
 
 /**
- * Tests for the {@link UsernameApi}.
+ * Tests for the {@link UsernameApi} against a {@link MockMojangServer}.
  *
  * @author Gaston Gonzalez (Gonalez)
  */
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class UsernameApiTest {
-  private static final UUID QENTIN_UUID = UUID.fromString("51800622-9dae-4b23-84a7-26d6a27c60db");
-  private static final UUID NOTCH_UUID = StringUuids.uuidFromString("069a79f444e94726a5befca90e38aaf5");
+  private static final UUID QENTIN_UUID = MockMojangServer.uuidOf("Qentin");
+  private static final UUID NOTCH_UUID = MockMojangServer.uuidOf("Notch");
 
   private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
   private final ResponseFutureCache futureCache = new DefaultResponseCache();
-  private final UsernameApi usernameApi = new DefaultUsernameApi(new OkHttpClient(), executor, futureCache);
+  private MockMojangServer server;
+  private ZenboClient client;
+  private UsernameApi usernameApi;
+
+  @BeforeAll
+  public void setUp() throws Exception {
+    server = new MockMojangServer(0);
+    client = ZenboClient.newBuilder()
+        .baseHttpClient(server.httpClientBuilder().build())
+        .build();
+    usernameApi = new DefaultUsernameApi(client.transport(), executor, futureCache);
+  }
 
   @AfterAll
-  public void tearDown() {
+  public void tearDown() throws Exception {
     executor.shutdownNow();
+    client.close();
+    server.close();
   }
 
   @Test
@@ -64,11 +81,10 @@ public class UsernameApiTest {
   }
 
   @Test
-  @Disabled
   public void testInvalidUsername204() throws Exception {
     ExecutionException exception = assertThrows(ExecutionException.class, usernameApi.usernameToUuid(
         ImmutableUsernameToUuidRequest.builder()
-            .username("1234a56789")
+            .username(MockMojangServer.UNKNOWN_USERNAME_PREFIX + "1234")
             .build())::get);
     assertInstanceOf(ResponseFailureException.class, exception.getCause());
   }
@@ -79,7 +95,7 @@ public class UsernameApiTest {
         ImmutableUuidToNameHistoryRequest.builder()
             .uuid(QENTIN_UUID)
             .build())
-        .get().usernames().containsAll(ImmutableSet.of("Dizzin", "Qentin")));
+        .get().usernames().containsAll(ImmutableSet.of("qentin_0", "qentin")));
   }
 
   @Test
@@ -94,7 +110,7 @@ public class UsernameApiTest {
 
   @Test
   public void testUuidToProfileAndSkinCape() throws Exception {
-    assertEquals("http://textures.minecraft.net/texture/beb81f3bf4cc08c4b2038c900d5b32401a9bc7935acfed6c5d3498b566ba20c3",
+    assertEquals("http://textures.minecraft.net/texture/" + StringUuids.toUndashedString(QENTIN_UUID) + "skin",
         usernameApi.uuidToProfileAndSkinCape(
             ImmutableUuidToProfileAndSkinCapeRequest.builder()
                 .uuid(QENTIN_UUID)
@@ -117,4 +133,34 @@ public class UsernameApiTest {
     usernameApi.usernameToUuid(build).get();
     assertNotNull(futureCache.get(build));
   }
+
+  @Test
+  public void testJdkTransportWithEndpoints() throws Exception {
+    UsernameApi jdkUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.jdk(HttpClient.newHttpClient()))
+        .endpoints(MojangEndpoints.of(server.baseUrl()))
+        .executor(MoreExecutors.directExecutor())
+        .build();
+    assertEquals(QENTIN_UUID, jdkUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder()
+            .username("Qentin")
+            .build())
+        .get().uuid());
+    assertEquals(ImmutableSet.of(QENTIN_UUID, NOTCH_UUID),
+        jdkUsernameApi.usernamesToUuids(
+            ImmutableUsernamesToUuidsRequest.builder()
+                .usernames(ImmutableList.of("Qentin", "Notch"))
+                .build())
+            .get().uuid());
+    assertEquals("notch", jdkUsernameApi.uuidToProfileAndSkinCape(
+        ImmutableUuidToProfileAndSkinCapeRequest.builder()
+            .uuid(NOTCH_UUID)
+            .build())
+        .get().username());
+    ExecutionException exception = assertThrows(ExecutionException.class, jdkUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder()
+            .username(MockMojangServer.UNKNOWN_USERNAME_PREFIX + "1234")
+            .build())::get);
+    assertInstanceOf(ResponseFailureException.class, exception.getCause());
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.stream.JsonReader;
+import io.github.gonalez.zenbo.username.internal.UsernameJsonDecoders;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link UsernameJsonDecoders}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class UsernameJsonDecodersTest {
+  private static final UUID NOTCH_UUID = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+  @Test
+  public void testDecodeUsernameToUuid() throws Exception {
+    assertEquals(NOTCH_UUID, UsernameJsonDecoders.decodeUsernameToUuid(
+        reader("{\"name\":\"Notch\",\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"legacy\":true}")).uuid());
+  }
+
+  @Test
+  public void testDecodeUsernamesToUuids() throws Exception {
+    assertEquals(ImmutableMap.of("notch", NOTCH_UUID), UsernameJsonDecoders.decodeUsernamesToUuids(
+        reader("[{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\"}]")));
+  }
+
+  @Test
+  public void testDecodeUuidToNameHistory() throws Exception {
+    assertEquals(ImmutableSet.of("Dizzin", "Qentin"), UsernameJsonDecoders.decodeUuidToNameHistory(
+        reader("[{\"name\":\"Dizzin\"},{\"name\":\"Qentin\",\"changedToAt\":1414059749000}]")).usernames());
+  }
+
+  @Test
+  public void testDecodeUuidToNameHistoryChangedBackToEarlierName() throws Exception {
+    UuidToNameHistoryResponse response = UsernameJsonDecoders.decodeUuidToNameHistory(reader(
+        "[{\"name\":\"Dizzin\"},{\"name\":\"Qentin\",\"changedToAt\":1414059749000},"
+            + "{\"name\":\"Dizzin\",\"changedToAt\":1423059749000}]"));
+    assertEquals(ImmutableSet.of("Dizzin", "Qentin"), response.usernames());
+    assertEquals(Optional.of("Dizzin"), response.currentUsername());
+  }
+
+  @Test
+  public void testDecodeUuidToProfileAndSkinCape() throws Exception {
+    String textures = Base64.getEncoder().encodeToString(
+        ("{\"timestamp\":1653838459263,\"textures\":{"
+            + "\"SKIN\":{\"url\":\"http://textures.minecraft.net/texture/skin\",\"metadata\":{\"model\":\"slim\"}},"
+            + "\"CAPE\":{\"url\":\"http://textures.minecraft.net/texture/cape\"}}}")
+            .getBytes(StandardCharsets.UTF_8));
+    UuidToProfileAndSkinCapeResponse response = UsernameJsonDecoders.decodeUuidToProfileAndSkinCape(
+        reader("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"properties\":["
+            + "{\"name\":\"textures\",\"value\":\"" + textures + "\",\"signature\":\"c2lnbmF0dXJl\"}]}"));
+
+    assertEquals("Notch", response.username());
+    assertEquals(textures, response.encodedTextures().get());
+    assertEquals("c2lnbmF0dXJl", response.texturesSignature().get());
+    assertEquals("http://textures.minecraft.net/texture/skin", response.skinUrl().get());
+    assertEquals("http://textures.minecraft.net/texture/cape", response.capeUrl().get());
+    assertTrue(response.textures().slimModel());
+    assertEquals(1653838459263L, response.textures().timestamp().getAsLong());
+    assertSame(response.textures(), response.textures());
+  }
+
+  @Test
+  public void testMalformedTexturesFailOnAccess() throws Exception {
+    UuidToProfileAndSkinCapeResponse response = UsernameJsonDecoders.decodeUuidToProfileAndSkinCape(
+        reader("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"properties\":["
+            + "{\"name\":\"textures\",\"value\":\"bm90IGpzb24=\"}]}"));
+
+    assertEquals("Notch", response.username());
+    assertThrows(UncheckedIOException.class, response::textures);
+  }
+
+  @Test
+  public void testMalformedBase64TexturesFailOnAccess() throws Exception {
+    UuidToProfileAndSkinCapeResponse response = UsernameJsonDecoders.decodeUuidToProfileAndSkinCape(
+        reader("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"properties\":["
+            + "{\"name\":\"textures\",\"value\":\"not base64!\"}]}"));
+
+    assertThrows(UncheckedIOException.class, response::textures);
+  }
+
+  @Test
+  public void testDecodeUuidToProfileWithoutProperties() throws Exception {
+    UuidToProfileAndSkinCapeResponse response = UsernameJsonDecoders.decodeUuidToProfileAndSkinCape(
+        reader("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\"}"));
+
+    assertEquals("Notch", response.username());
+    assertFalse(response.encodedTextures().isPresent());
+    assertFalse(response.skinUrl().isPresent());
+    assertFalse(response.textures().slimModel());
+  }
+
+  private static JsonReader reader(String json) {
+    return new JsonReader(new StringReader(json));
+  }
+}
@@ -0,0 +1,529 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import io.github.gonalez.zenbo.*;
+import io.github.gonalez.zenbo.Request.RequestOptions;
+import io.github.gonalez.zenbo.username.*;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for the {@link DefaultUsernameApi} against a local server, counting the calls that reach it.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class DefaultUsernameApiTest {
+  private static final UUID NOTCH_UUID = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+  private final MockWebServer server = new MockWebServer();
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+  private OkHttpClient httpClient;
+  private ResponseFutureCache responseCache;
+  private UsernameApi usernameApi;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        upstreamCalls.incrementAndGet();
+        if (request.getMethod().equals("POST")) {
+          JsonArray usernames = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonArray();
+          if (usernames.contains(new JsonPrimitive("unavailable"))) {
+            return new MockResponse().setResponseCode(503);
+          }
+          JsonArray profiles = new JsonArray();
+          for (JsonElement username : usernames) {
+            if (!username.getAsString().equals("unknown")) {
+              JsonObject profile = new JsonObject();
+              profile.addProperty("id", StringUuids.toUndashedString(uuidOf(username.getAsString())));
+              profile.addProperty("name", username.getAsString());
+              profiles.add(profile);
+            }
+          }
+          return new MockResponse()
+              .setHeader("Content-Type", "application/json")
+              .setBody(profiles.toString());
+        }
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":\"" + StringUuids.toUndashedString(NOTCH_UUID) + "\",\"name\":\"Notch\"}")
+            .setHeadersDelay(100, TimeUnit.MILLISECONDS);
+      }
+    });
+    server.start();
+    httpClient = new OkHttpClient.Builder()
+        .addInterceptor(chain -> {
+          HttpUrl url = chain.request().url().newBuilder()
+              .scheme("http")
+              .host(server.getHostName())
+              .port(server.getPort())
+              .build();
+          return chain.proceed(chain.request().newBuilder().url(url).build());
+        })
+        .build();
+    responseCache = ResponseFutureCache.newBuilder().build();
+    usernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .responseCache(responseCache)
+        .build();
+  }
+
+  private static UUID uuidOf(String username) {
+    return UUID.nameUUIDFromBytes(username.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    server.shutdown();
+  }
+
+  @Test
+  public void testCacheMissFetchesOnce() throws Exception {
+    CountDownLatch listenerCalls = new CountDownLatch(1);
+    UsernameToUuidRequest request = ImmutableUsernameToUuidRequest.builder()
+        .username("Notch")
+        .options(ImmutableRequestOptions.builder()
+            .cacheable(true)
+            .build())
+        .listener(new Request.RequestListener<>() {
+          @Override
+          public void onSuccess(UsernameToUuidResponse response) {
+            listenerCalls.countDown();
+          }
+
+          @Override
+          public void onFailure(Throwable throwable) {}
+        })
+        .build();
+
+    ListenableFuture<UsernameToUuidResponse> future = usernameApi.usernameToUuid(request);
+    assertSame(future, responseCache.get(request));
+    assertEquals(NOTCH_UUID, future.get().uuid());
+    assertEquals(1, upstreamCalls.get());
+    assertTrue(listenerCalls.await(5, TimeUnit.SECONDS));
+
+    assertEquals(NOTCH_UUID, usernameApi.usernameToUuid(request).get().uuid());
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  @Test
+  public void testConcurrentLookupsFetchOnce() throws Exception {
+    List<ListenableFuture<UsernameToUuidResponse>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(usernameApi.usernameToUuid(ImmutableUsernameToUuidRequest.builder()
+          .username(i % 2 == 0 ? "Notch" : "notch")
+          .build()));
+    }
+    for (ListenableFuture<UsernameToUuidResponse> future : futures) {
+      assertEquals(NOTCH_UUID, future.get().uuid());
+    }
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  @Test
+  public void testBatchedLookupsFetchOnce() throws Exception {
+    UsernameApi batchingUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .batchUsernameLookups(Duration.ofSeconds(1))
+        .build();
+    Map<String, ListenableFuture<UsernameToUuidResponse>> futures = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      String username = i == 0 ? "unknown" : "player" + i;
+      futures.put(username, batchingUsernameApi.usernameToUuid(ImmutableUsernameToUuidRequest.builder()
+          .username(username)
+          .build()));
+    }
+    for (int i = 1; i < 10; i++) {
+      assertEquals(uuidOf("player" + i), futures.get("player" + i).get(5, TimeUnit.SECONDS).uuid());
+    }
+    ExecutionException exception =
+        assertThrows(ExecutionException.class, () -> futures.get("unknown").get(5, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof ResponseNotFoundException);
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  @Test
+  public void testBatchedLookupsFlushAfterWindow() throws Exception {
+    UsernameApi batchingUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .batchUsernameLookups(Duration.ofMillis(20))
+        .build();
+    ListenableFuture<UsernameToUuidResponse> first = batchingUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder().username("player1").build());
+    ListenableFuture<UsernameToUuidResponse> second = batchingUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder().username("Player2").build());
+    assertEquals(uuidOf("player1"), first.get(5, TimeUnit.SECONDS).uuid());
+    assertEquals(uuidOf("player2"), second.get(5, TimeUnit.SECONDS).uuid());
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  @Test
+  public void testBatchedLookupsAreBatchedPerPriority() throws Exception {
+    UsernameApi batchingUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .batchUsernameLookups(Duration.ofMillis(20))
+        .build();
+    ListenableFuture<UsernameToUuidResponse> interactive = batchingUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder().username("player1").build());
+    ListenableFuture<UsernameToUuidResponse> background = batchingUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder()
+            .username("player2")
+            .options(ImmutableRequestOptions.builder()
+                .cacheable(false)
+                .priority(Request.Priority.BACKGROUND)
+                .build())
+            .build());
+    // Sent in the same window, but the background lookup must not join the interactive batch.
+    assertEquals(uuidOf("player1"), interactive.get(5, TimeUnit.SECONDS).uuid());
+    assertEquals(uuidOf("player2"), background.get(5, TimeUnit.SECONDS).uuid());
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  public void testInstrumentation() throws Exception {
+    InMemoryInstrumentation instrumentation = Instrumentation.inMemory();
+    UsernameApi instrumentedUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .responseCache(responseCache)
+        .instrumentation(instrumentation)
+        .build();
+    ListenableFuture<UsernameToUuidResponse> first = instrumentedUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder().username("Notch").build());
+    ListenableFuture<UsernameToUuidResponse> second = instrumentedUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder().username("notch").build());
+    first.get();
+    second.get();
+    UsernameToUuidRequest request = ImmutableUsernameToUuidRequest.builder()
+        .username("Notch")
+        .options(ImmutableRequestOptions.builder()
+            .cacheable(true)
+            .build())
+        .build();
+    instrumentedUsernameApi.usernameToUuid(request).get();
+    instrumentedUsernameApi.usernameToUuid(request).get();
+
+    EndpointStats stats = instrumentation.stats(UsernameToUuidRequest.class);
+    assertEquals(2, stats.requestCount());
+    assertEquals(0, stats.inFlightCount());
+    assertEquals(1, stats.cacheHitCount());
+    assertEquals(3, stats.cacheMissCount());
+    assertEquals(1, stats.coalescedCount());
+    assertTrue(stats.bytesRead() > 0);
+    assertEquals(2, stats.latency().count());
+    assertTrue(stats.latency().p50() >= TimeUnit.MILLISECONDS.toNanos(80));
+    assertEquals(0, stats.failureCount());
+  }
+
+  @Test
+  public void testResetKeepsRequestsInFlight() throws Exception {
+    InMemoryInstrumentation instrumentation = Instrumentation.inMemory();
+    UsernameApi instrumentedUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .responseCache(responseCache)
+        .instrumentation(instrumentation)
+        .build();
+    ListenableFuture<UsernameToUuidResponse> response = instrumentedUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder().username("Notch").build());
+    instrumentation.reset();
+    assertEquals(1, instrumentation.stats(UsernameToUuidRequest.class).inFlightCount());
+    assertEquals(0, instrumentation.stats(UsernameToUuidRequest.class).requestCount());
+    response.get(5, TimeUnit.SECONDS);
+
+    assertEquals(0, instrumentation.stats(UsernameToUuidRequest.class).inFlightCount());
+  }
+
+  @Test
+  public void testPrefetchedLookupsAreCacheHits() throws Exception {
+    Set<String> usernames = new HashSet<>();
+    for (int i = 0; i < 12; i++) {
+      usernames.add("player" + i);
+    }
+    usernames.add("unknown");
+    usernameApi.prefetch(ImmutablePrefetchRequest.builder()
+        .usernames(usernames)
+        .addResponseTypes(PrefetchRequest.ResponseType.UUID)
+        .build())
+        .get(5, TimeUnit.SECONDS);
+    assertEquals(2, upstreamCalls.get());
+
+    RequestOptions options = ImmutableRequestOptions.builder()
+        .cacheable(true)
+        .build();
+    for (int i = 0; i < 12; i++) {
+      ListenableFuture<UsernameToUuidResponse> future = usernameApi.usernameToUuid(
+          ImmutableUsernameToUuidRequest.builder()
+              .username("Player" + i)
+              .options(options)
+              .build());
+      assertTrue(future.isDone());
+      assertEquals(uuidOf("player" + i), future.get().uuid());
+    }
+    ListenableFuture<UsernameToUuidResponse> unknown = usernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder()
+            .username("unknown")
+            .options(options)
+            .build());
+    ExecutionException exception = assertThrows(ExecutionException.class, unknown::get);
+    assertTrue(exception.getCause() instanceof ResponseNotFoundException);
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  public void testPartialResultsKeepFoundUsernames() throws Exception {
+    Set<String> usernames = new HashSet<>();
+    for (int i = 0; i < 12; i++) {
+      usernames.add("Player" + i);
+    }
+    usernames.add("unknown");
+    List<UsernamesToUuidsResponse> partialResults = Collections.synchronizedList(new ArrayList<>());
+    UsernamesToUuidsResponse response = usernameApi.usernamesToUuids(
+        ImmutableUsernamesToUuidsRequest.builder()
+            .usernames(usernames)
+            .allowPartialResults(true)
+            .partialResultListener(partialResults::add)
+            .build())
+        .get(5, TimeUnit.SECONDS);
+    assertEquals(12, response.uuidsByUsername().size());
+    for (int i = 0; i < 12; i++) {
+      assertEquals(uuidOf("player" + i), response.uuidsByUsername().get("Player" + i));
+    }
+    assertEquals(Set.of("unknown"), response.failures().keySet());
+    assertTrue(response.failures().get("unknown") instanceof ResponseNotFoundException);
+    assertEquals(2, partialResults.size());
+    assertEquals(13, partialResults.stream()
+        .mapToInt(partialResult -> partialResult.uuidsByUsername().size() + partialResult.failures().size())
+        .sum());
+    assertEquals(2, upstreamCalls.get());
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> usernameApi.usernamesToUuids(
+        ImmutableUsernamesToUuidsRequest.builder()
+            .usernames(usernames)
+            .build())
+        .get(5, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof ResponseFailureException);
+  }
+
+  @Test
+  public void testCoalescedRequestsNotifyPartialResults() throws Exception {
+    Set<String> usernames = new HashSet<>();
+    for (int i = 0; i < 12; i++) {
+      usernames.add("player" + i);
+    }
+    usernames.add("unknown");
+    List<UsernamesToUuidsResponse> firstPartialResults = Collections.synchronizedList(new ArrayList<>());
+    List<UsernamesToUuidsResponse> secondPartialResults = Collections.synchronizedList(new ArrayList<>());
+    ListenableFuture<UsernamesToUuidsResponse> first = usernameApi.usernamesToUuids(
+        ImmutableUsernamesToUuidsRequest.builder()
+            .usernames(usernames)
+            .allowPartialResults(true)
+            .partialResultListener(firstPartialResults::add)
+            .build());
+    ListenableFuture<UsernamesToUuidsResponse> second = usernameApi.usernamesToUuids(
+        ImmutableUsernamesToUuidsRequest.builder()
+            .usernames(usernames)
+            .allowPartialResults(true)
+            .partialResultListener(secondPartialResults::add)
+            .build());
+    assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+    assertEquals(2, upstreamCalls.get());
+
+    assertEquals(2, firstPartialResults.size());
+    assertEquals(1, secondPartialResults.size());
+    assertEquals(12, secondPartialResults.get(0).uuidsByUsername().size());
+    assertEquals(Set.of("unknown"), secondPartialResults.get(0).failures().keySet());
+  }
+
+  @Test
+  public void testStaleCachedRequestsNotifyWholeResponse() throws Exception {
+    AtomicLong nanos = new AtomicLong();
+    ResponseFutureCache refreshingCache = ResponseFutureCache.newBuilder()
+        .refreshAfterWrite(Duration.ofMinutes(1))
+        .ticker(new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        })
+        .build();
+    UsernameApi refreshingUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .responseCache(refreshingCache)
+        .build();
+    RequestOptions options = ImmutableRequestOptions.builder()
+        .cacheable(true)
+        .build();
+    List<UsernamesToUuidsResponse> firstPartialResults = Collections.synchronizedList(new ArrayList<>());
+    UsernamesToUuidsRequest first = ImmutableUsernamesToUuidsRequest.builder()
+        .addUsernames("player1", "unknown")
+        .allowPartialResults(true)
+        .options(options)
+        .partialResultListener(firstPartialResults::add)
+        .build();
+    refreshingUsernameApi.usernamesToUuids(first).get(5, TimeUnit.SECONDS);
+    assertEquals(1, firstPartialResults.size());
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    ListenableFuture<UsernamesToUuidsResponse> stale = refreshingCache.get(first);
+    List<UsernamesToUuidsResponse> secondPartialResults = Collections.synchronizedList(new ArrayList<>());
+    UsernamesToUuidsResponse response = refreshingUsernameApi.usernamesToUuids(
+        ImmutableUsernamesToUuidsRequest.builder()
+            .addUsernames("player1", "unknown")
+            .allowPartialResults(true)
+            .options(options)
+            .partialResultListener(secondPartialResults::add)
+            .build()).get(5, TimeUnit.SECONDS);
+    // Served from the cache while it is refreshed, the parts of the refresh are not notified.
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (refreshingCache.get(first) == stale && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertNotSame(stale, refreshingCache.get(first));
+    assertEquals(2, upstreamCalls.get());
+    assertEquals(List.of(response), secondPartialResults);
+    assertEquals(1, firstPartialResults.size());
+  }
+
+  @Test
+  public void testPartialResultsWithTransientFailuresAreNotCached() throws Exception {
+    RequestOptions options = ImmutableRequestOptions.builder()
+        .cacheable(true)
+        .build();
+    UsernamesToUuidsRequest notFoundRequest = ImmutableUsernamesToUuidsRequest.builder()
+        .addUsernames("player1", "unknown")
+        .allowPartialResults(true)
+        .options(options)
+        .build();
+    usernameApi.usernamesToUuids(notFoundRequest).get(5, TimeUnit.SECONDS);
+    assertNotNull(responseCache.get(notFoundRequest).get());
+
+    UsernamesToUuidsRequest unavailableRequest = ImmutableUsernamesToUuidsRequest.builder()
+        .addUsernames("player2", "unavailable")
+        .allowPartialResults(true)
+        .options(options)
+        .build();
+    ListenableFuture<UsernamesToUuidsResponse> future = usernameApi.usernamesToUuids(unavailableRequest);
+    // Listeners run in order, so the cache has seen the response once this one runs.
+    CountDownLatch completed = new CountDownLatch(1);
+    future.addListener(completed::countDown, MoreExecutors.directExecutor());
+    assertTrue(completed.await(5, TimeUnit.SECONDS));
+    assertEquals(2, future.get().failures().size());
+    assertNull(responseCache.get(unavailableRequest).get());
+  }
+
+  @Test
+  public void testStreamedLookupsAreBatched() throws Exception {
+    UsernameApi batchingUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .batchUsernameLookups(Duration.ofMillis(20))
+        .build();
+    List<String> usernames = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      usernames.add(i == 0 ? "unknown" : "player" + i);
+    }
+    Map<String, LookupResult<String, UUID>> results = new ConcurrentHashMap<>();
+    CountDownLatch completed = new CountDownLatch(1);
+    batchingUsernameApi.streamUsernamesToUuids(usernames.iterator(), ImmutableStreamOptions.builder()
+        .maxInFlight(10)
+        .build())
+        .subscribe(new Flow.Subscriber<>() {
+          @Override
+          public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+          }
+
+          @Override
+          public void onNext(LookupResult<String, UUID> result) {
+            results.put(result.key(), result);
+          }
+
+          @Override
+          public void onError(Throwable throwable) {}
+
+          @Override
+          public void onComplete() {
+            completed.countDown();
+          }
+        });
+    assertTrue(completed.await(5, TimeUnit.SECONDS));
+    assertEquals(25, results.size());
+    for (int i = 1; i < 25; i++) {
+      assertEquals(uuidOf("player" + i), results.get("player" + i).value().get());
+    }
+    assertTrue(results.get("unknown").failure().get() instanceof ResponseNotFoundException);
+    assertEquals(3, upstreamCalls.get());
+  }
+
+  @Test
+  public void testIdentityIndexAnswersOtherResponseTypes() throws Exception {
+    UsernameApi indexedUsernameApi = UsernameApi.newBuilder()
+        .transport(HttpTransport.async(httpClient))
+        .executor(MoreExecutors.directExecutor())
+        .identityIndex(IdentityIndex.newBuilder().build())
+        .build();
+    assertEquals("Notch", indexedUsernameApi.uuidToProfileAndSkinCape(
+        ImmutableUuidToProfileAndSkinCapeRequest.builder()
+            .uuid(NOTCH_UUID)
+            .build())
+        .get().username());
+    assertEquals(1, upstreamCalls.get());
+
+    assertEquals(NOTCH_UUID, indexedUsernameApi.usernameToUuid(
+        ImmutableUsernameToUuidRequest.builder()
+            .username("notch")
+            .build())
+        .get().uuid());
+    assertEquals(1, upstreamCalls.get());
+  }
+}
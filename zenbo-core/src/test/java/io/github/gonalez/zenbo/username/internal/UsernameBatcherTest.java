@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.username.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.github.gonalez.zenbo.Request.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link UsernameBatcher}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class UsernameBatcherTest {
+  /** Never runs the scheduled flushes itself, the tests run them as if their timers fired. */
+  private final List<Runnable> scheduledFlushes = new ArrayList<>();
+  private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1) {
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      scheduledFlushes.add(command);
+      return super.schedule(() -> {}, 1, TimeUnit.DAYS);
+    }
+  };
+  private final List<List<String>> sentBatches = new ArrayList<>();
+  private final UsernameBatcher batcher = new UsernameBatcher(
+      TimeUnit.SECONDS.toNanos(1), 2, scheduler, MoreExecutors.directExecutor(), this::lookup);
+
+  private ListenableFuture<Map<String, UUID>> lookup(List<String> usernames, Priority priority) {
+    sentBatches.add(usernames);
+    Map<String, UUID> uuids = new HashMap<>();
+    for (String username : usernames) {
+      uuids.put(username, new UUID(0, username.hashCode()));
+    }
+    return Futures.immediateFuture(uuids);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testTimerOfFullBatchDoesNotFlushNextBatch() throws Exception {
+    batcher.lookup("player1", Priority.INTERACTIVE);
+    batcher.lookup("player2", Priority.INTERACTIVE);
+    assertEquals(List.of(List.of("player1", "player2")), sentBatches);
+    ListenableFuture<UUID> next = batcher.lookup("player3", Priority.INTERACTIVE);
+
+    // The timer of the full batch fires although it was cancelled.
+    scheduledFlushes.get(0).run();
+    assertEquals(1, sentBatches.size());
+    assertFalse(next.isDone());
+
+    scheduledFlushes.get(1).run();
+    assertEquals(List.of("player3"), sentBatches.get(1));
+    assertEquals(new UUID(0, "player3".hashCode()), next.get());
+  }
+
+  @Test
+  public void testPrioritiesAreBatchedSeparately() {
+    batcher.lookup("player1", Priority.INTERACTIVE);
+    batcher.lookup("player2", Priority.BACKGROUND);
+    assertEquals(2, scheduledFlushes.size());
+    scheduledFlushes.forEach(Runnable::run);
+    assertEquals(List.of(List.of("player1"), List.of("player2")), sentBatches);
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.testing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * Starts lookups at a fixed rate regardless of how long the previous ones take, as the players of a server
+ * would, and reports their throughput and latency percentiles. Lookups are started on the calling thread,
+ * so they must not block it.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class LoadGenerator {
+  private final int requestsPerSecond;
+  private final Duration duration;
+  private final Duration completionTimeout;
+  private final MockMojangServer server;
+
+  private LoadGenerator(Builder builder) {
+    this.requestsPerSecond = builder.requestsPerSecond;
+    this.duration = builder.duration;
+    this.completionTimeout = builder.completionTimeout;
+    this.server = builder.server;
+  }
+
+  /** @return a new {@link LoadGenerator} builder. */
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * Starts the lookups returned by the given function for each index, from 0, and waits for all of them
+   * to complete.
+   *
+   * @throws TimeoutException if the lookups did not complete within the completion timeout.
+   */
+  public LoadReport run(IntFunction<? extends ListenableFuture<?>> lookup)
+      throws InterruptedException, TimeoutException {
+    int requestCount = (int) (requestsPerSecond * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+    long periodNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+    long[] latencies = new long[requestCount];
+    AtomicLong failures = new AtomicLong();
+    List<ListenableFuture<?>> futures = new ArrayList<>(requestCount);
+    long upstreamRequestsBefore = server != null ? server.requestCount() : 0;
+
+    long startNanos = System.nanoTime();
+    for (int i = 0; i < requestCount; i++) {
+      long scheduledNanos = startNanos + i * periodNanos;
+      long waitNanos = scheduledNanos - System.nanoTime();
+      if (waitNanos > 0) {
+        LockSupport.parkNanos(waitNanos);
+      }
+      int index = i;
+      long lookupStartNanos = System.nanoTime();
+      ListenableFuture<?> future;
+      try {
+        future = lookup.apply(i);
+      } catch (RuntimeException e) {
+        future = Futures.immediateFailedFuture(e);
+      }
+      ListenableFuture<?> completed = future;
+      future.addListener(() -> {
+        latencies[index] = System.nanoTime() - lookupStartNanos;
+        try {
+          Futures.getDone(completed);
+        } catch (ExecutionException | RuntimeException e) {
+          failures.incrementAndGet();
+        }
+      }, directExecutor());
+      futures.add(future);
+    }
+    try {
+      Futures.whenAllComplete(futures).call(() -> null, directExecutor())
+          .get(completionTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      throw new AssertionError(e);
+    }
+    long elapsedNanos = System.nanoTime() - startNanos;
+
+    Arrays.sort(latencies);
+    ImmutableLoadReport.Builder report = ImmutableLoadReport.builder()
+        .requestCount(requestCount)
+        .successCount(requestCount - failures.get())
+        .failureCount(failures.get())
+        .elapsed(Duration.ofNanos(elapsedNanos))
+        .p50Latency(percentile(latencies, 0.5))
+        .p90Latency(percentile(latencies, 0.9))
+        .p99Latency(percentile(latencies, 0.99))
+        .maxLatency(percentile(latencies, 1));
+    if (server != null) {
+      report.upstreamRequestCount(server.requestCount() - upstreamRequestsBefore);
+    }
+    return report.build();
+  }
+
+  private static Duration percentile(long[] sortedLatencies, double percentile) {
+    if (sortedLatencies.length == 0) {
+      return Duration.ZERO;
+    }
+    int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+    return Duration.ofNanos(sortedLatencies[Math.max(index, 0)]);
+  }
+
+  /** Builder to create {@link LoadGenerator}s. */
+  public static final class Builder {
+    private int requestsPerSecond = 100;
+    private Duration duration = Duration.ofSeconds(10);
+    private Duration completionTimeout = Duration.ofMinutes(1);
+    private MockMojangServer server;
+
+    private Builder() {}
+
+    /** Sets the rate at which the lookups are started. */
+    public Builder requestsPerSecond(int requestsPerSecond) {
+      checkArgument(requestsPerSecond > 0, "requestsPerSecond must be positive");
+      this.requestsPerSecond = requestsPerSecond;
+      return this;
+    }
+
+    /** Sets for how long the lookups are started. */
+    public Builder duration(Duration duration) {
+      checkArgument(!duration.isNegative(), "duration must not be negative");
+      this.duration = duration;
+      return this;
+    }
+
+    /** Sets how long to wait for the lookups to complete once all of them were started. */
+    public Builder completionTimeout(Duration completionTimeout) {
+      this.completionTimeout = checkNotNull(completionTimeout);
+      return this;
+    }
+
+    /** Sets the mock server the lookups are sent to, to report the number of requests it received. */
+    public Builder server(MockMojangServer server) {
+      this.server = checkNotNull(server);
+      return this;
+    }
+
+    /** @return a new {@link LoadGenerator} from this builder. */
+    public LoadGenerator build() {
+      return new LoadGenerator(this);
+    }
+  }
+}
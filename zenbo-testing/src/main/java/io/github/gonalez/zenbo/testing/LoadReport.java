@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.testing;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * The results of a run of a {@link LoadGenerator}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+@Value.Immutable
+public interface LoadReport {
+  /** @return the number of lookups started. */
+  long requestCount();
+
+  /** @return the number of lookups that succeeded. */
+  long successCount();
+
+  /** @return the number of lookups that failed. */
+  long failureCount();
+
+  /** @return the time from starting the first lookup until the last one completed. */
+  Duration elapsed();
+
+  /** @return the median latency of the lookups. */
+  Duration p50Latency();
+
+  /** @return the 90th percentile latency of the lookups. */
+  Duration p90Latency();
+
+  /** @return the 99th percentile latency of the lookups. */
+  Duration p99Latency();
+
+  /** @return the highest latency of the lookups. */
+  Duration maxLatency();
+
+  /** @return the number of requests received by the mock server, if one was given. */
+  OptionalLong upstreamRequestCount();
+
+  /** @return the number of lookups completed per second. */
+  default double throughput() {
+    long elapsedNanos = elapsed().toNanos();
+    return elapsedNanos == 0 ? 0 : (successCount() + failureCount()) * 1e9 / elapsedNanos;
+  }
+
+  /** @return a human readable summary of this report. */
+  default String summary() {
+    return String.format(
+        "requests=%d successes=%d failures=%d elapsed=%dms throughput=%.1f/s "
+            + "p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms upstream=%s",
+        requestCount(), successCount(), failureCount(), elapsed().toMillis(), throughput(),
+        p50Latency().toNanos() / 1e6, p90Latency().toNanos() / 1e6, p99Latency().toNanos() / 1e6,
+        maxLatency().toNanos() / 1e6,
+        upstreamRequestCount().isPresent() ? String.valueOf(upstreamRequestCount().getAsLong()) : "n/a");
+  }
+}
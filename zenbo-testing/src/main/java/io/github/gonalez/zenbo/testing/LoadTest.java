@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.testing;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.github.gonalez.zenbo.ImmutableRequestOptions;
+import io.github.gonalez.zenbo.Instrumentation;
+import io.github.gonalez.zenbo.InMemoryInstrumentation;
+import io.github.gonalez.zenbo.Request.RequestOptions;
+import io.github.gonalez.zenbo.ZenboClient;
+import io.github.gonalez.zenbo.username.ImmutableUsernameToUuidRequest;
+import io.github.gonalez.zenbo.username.UsernameApi;
+import io.github.gonalez.zenbo.username.UsernameToUuidRequest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Drives the username to uuid lookups of a {@link UsernameApi} against a {@link MockMojangServer} at a
+ * target rate and prints a {@link LoadReport} of the run. The arguments are {@code key=value} pairs:
+ *
+ * <ul>
+ *   <li>{@code rate}: the lookups started per second, by default 500.
+ *   <li>{@code duration}: the seconds to start lookups for, by default 10.
+ *   <li>{@code latency}: the milliseconds the server waits before each response, by default 50.
+ *   <li>{@code errorRate}: the ratio of requests answered with a server error, by default 0.
+ *   <li>{@code rateLimitRate}: the ratio of requests answered with a rate limit response, by default 0.
+ *   <li>{@code players}: the number of distinct usernames looked up, by default 1000.
+ *   <li>{@code cache}: whether the lookups are cacheable, by default true.
+ *   <li>{@code batch}: the milliseconds to batch the lookups for, or 0 to not batch them, by default 0.
+ * </ul>
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class LoadTest {
+  private LoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> arguments = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Arguments must be key=value pairs: " + arg);
+      }
+      arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    int rate = Integer.parseInt(arguments.getOrDefault("rate", "500"));
+    int duration = Integer.parseInt(arguments.getOrDefault("duration", "10"));
+    int players = Integer.parseInt(arguments.getOrDefault("players", "1000"));
+    long batchMillis = Long.parseLong(arguments.getOrDefault("batch", "0"));
+    RequestOptions options = ImmutableRequestOptions.builder()
+        .cacheable(Boolean.parseBoolean(arguments.getOrDefault("cache", "true")))
+        .build();
+
+    try (MockMojangServer server = MockMojangServer.newBuilder()
+        .latency(Duration.ofMillis(Long.parseLong(arguments.getOrDefault("latency", "50"))))
+        .serverErrorRate(Double.parseDouble(arguments.getOrDefault("errorRate", "0")))
+        .rateLimitRate(Double.parseDouble(arguments.getOrDefault("rateLimitRate", "0")))
+        .build();
+         ZenboClient client = ZenboClient.newBuilder()
+             .baseHttpClient(server.httpClientBuilder().build())
+             .build()) {
+      InMemoryInstrumentation instrumentation = Instrumentation.inMemory();
+      UsernameApi.Builder usernameApiBuilder = UsernameApi.newBuilder()
+          .transport(client.transport())
+          .executor(MoreExecutors.directExecutor())
+          .instrumentation(instrumentation);
+      if (batchMillis > 0) {
+        usernameApiBuilder.batchUsernameLookups(Duration.ofMillis(batchMillis));
+      }
+      UsernameApi usernameApi = usernameApiBuilder.build();
+
+      LoadReport report = LoadGenerator.newBuilder()
+          .requestsPerSecond(rate)
+          .duration(Duration.ofSeconds(duration))
+          .server(server)
+          .build()
+          .run(i -> usernameApi.usernameToUuid(ImmutableUsernameToUuidRequest.builder()
+              .username("player" + (i % players))
+              .options(options)
+              .build()));
+      System.out.println(report.summary());
+      System.out.println(instrumentation.stats(UsernameToUuidRequest.class));
+    }
+  }
+}
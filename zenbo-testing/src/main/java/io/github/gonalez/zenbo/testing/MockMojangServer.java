@@ -0,0 +1,393 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.testing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.gonalez.zenbo.username.StringUuids;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ServerSocketFactory;
+
+/**
+ * A local server answering the Mojang API endpoints with generated profiles, so the tests and benchmarks
+ * do not depend on the network. It can be configured to add latency and to fail a ratio of the requests,
+ * either with server errors or with rate limit responses.
+ *
+ * <p>Usernames starting with {@value #UNKNOWN_USERNAME_PREFIX} do not exist, the single username endpoint
+ * answers them with no content and the bulk endpoint leaves them out.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public final class MockMojangServer implements Closeable {
+  /** The prefix of the usernames that do not exist. */
+  public static final String UNKNOWN_USERNAME_PREFIX = "unknown";
+
+  /** The maximum length of the usernames encoded in their uuids, the maximum length of Mojang usernames. */
+  private static final int MAX_ENCODED_USERNAME_LENGTH = 16;
+  /** The characters of the usernames encoded in their uuids, each one in 6 bits with 0 ending the username. */
+  private static final String USERNAME_ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz_";
+  /** The highest 16 bits of the uuids encoding a username. */
+  private static final long ENCODED_UUID_MARKER = 0x6d6bL;
+
+  private final MockWebServer server = new MockWebServer();
+  private final AtomicInteger requestCount = new AtomicInteger();
+  private final long latencyMillis;
+  private final double serverErrorRate;
+  private final double rateLimitRate;
+  private final int retryAfterSeconds;
+  private final int previousNames;
+  private final Random random;
+
+  /** Starts a server answering every request successfully after the given latency. */
+  public MockMojangServer(long latencyMillis) throws IOException {
+    this(newBuilder().latency(Duration.ofMillis(latencyMillis)));
+  }
+
+  private MockMojangServer(Builder builder) throws IOException {
+    this.latencyMillis = builder.latency.toMillis();
+    this.serverErrorRate = builder.serverErrorRate;
+    this.rateLimitRate = builder.rateLimitRate;
+    this.retryAfterSeconds = builder.retryAfterSeconds;
+    this.previousNames = builder.previousNames;
+    this.random = new Random(builder.seed);
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        requestCount.incrementAndGet();
+        return respondOrFail(request).setHeadersDelay(MockMojangServer.this.latencyMillis, TimeUnit.MILLISECONDS);
+      }
+    });
+    server.setServerSocketFactory(new NoDelayServerSocketFactory());
+    server.start();
+  }
+
+  /** @return a new {@link MockMojangServer} builder. */
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /** @return a http client builder whose calls to the Mojang hosts are redirected to this server. */
+  public OkHttpClient.Builder httpClientBuilder() {
+    return new OkHttpClient.Builder()
+        .addInterceptor(chain -> {
+          okhttp3.Request request = chain.request();
+          HttpUrl url = request.url().newBuilder()
+              .scheme("http")
+              .host(server.getHostName())
+              .port(server.getPort())
+              .build();
+          return chain.proceed(request.newBuilder().url(url).build());
+        });
+  }
+
+  /**
+   * @return the base url of this server, without a trailing slash, which answers the endpoints of both the
+   *     api and session server.
+   */
+  public String baseUrl() {
+    String url = server.url("/").toString();
+    return url.substring(0, url.length() - 1);
+  }
+
+  /** @return the number of requests this server received. */
+  public int requestCount() {
+    return requestCount.get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    server.shutdown();
+  }
+
+  /**
+   * @return the uuid the server answers for the given username, ignoring its case. The username is encoded
+   *     in the uuid, so that {@link #usernameOf(UUID)} returns it back for the usernames of up to
+   *     {@value #MAX_ENCODED_USERNAME_LENGTH} letters, digits and underscores.
+   */
+  public static UUID uuidOf(String username) {
+    String lowercaseUsername = username.toLowerCase(Locale.ROOT);
+    if (lowercaseUsername.isEmpty() || lowercaseUsername.length() > MAX_ENCODED_USERNAME_LENGTH) {
+      return UUID.nameUUIDFromBytes(("OfflinePlayer:" + lowercaseUsername).getBytes(StandardCharsets.UTF_8));
+    }
+    long mostSigBits = ENCODED_UUID_MARKER << 48;
+    long leastSigBits = 0;
+    for (int i = 0; i < lowercaseUsername.length(); i++) {
+      long code = USERNAME_ALPHABET.indexOf(lowercaseUsername.charAt(i)) + 1;
+      if (code == 0) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + lowercaseUsername).getBytes(StandardCharsets.UTF_8));
+      }
+      if (i < 10) {
+        leastSigBits |= code << (6 * i);
+      } else {
+        mostSigBits |= code << (6 * (i - 10));
+      }
+    }
+    return new UUID(mostSigBits, leastSigBits);
+  }
+
+  /**
+   * @return the lowercase username the server answers for the given uuid, which is the username the uuid
+   *     was returned for by {@link #uuidOf(String)}. Uuids not returned by it get a generated username.
+   */
+  public static String usernameOf(UUID uuid) {
+    if (uuid.getMostSignificantBits() >>> 48 != ENCODED_UUID_MARKER) {
+      return "player_" + undashed(uuid).substring(0, 8);
+    }
+    StringBuilder username = new StringBuilder(MAX_ENCODED_USERNAME_LENGTH);
+    for (int i = 0; i < MAX_ENCODED_USERNAME_LENGTH; i++) {
+      long bits = i < 10
+          ? uuid.getLeastSignificantBits() >>> (6 * i)
+          : uuid.getMostSignificantBits() >>> (6 * (i - 10));
+      int code = (int) (bits & 0x3f);
+      if (code == 0) {
+        break;
+      }
+      username.append(USERNAME_ALPHABET.charAt(code - 1));
+    }
+    return username.toString();
+  }
+
+  /** @return the body of the username to uuid endpoint for the given username. */
+  public static String usernameToUuidJson(String username) {
+    return profileJsonObject(username).toString();
+  }
+
+  /** @return the body of the name history endpoint, with the given number of previous names. */
+  public static String nameHistoryJson(String username, int previousNames) {
+    JsonArray jsonArray = new JsonArray();
+    for (int i = 0; i < previousNames; i++) {
+      JsonObject jsonObject = new JsonObject();
+      jsonObject.addProperty("name", username + "_" + i);
+      if (i > 0) {
+        jsonObject.addProperty("changedToAt", 1414059749000L + i);
+      }
+      jsonArray.add(jsonObject);
+    }
+    JsonObject current = new JsonObject();
+    current.addProperty("name", username);
+    current.addProperty("changedToAt", 1614059749000L);
+    jsonArray.add(current);
+    return jsonArray.toString();
+  }
+
+  /** @return the body of the profile and skin/cape endpoint for the given username. */
+  public static String profileJson(String username) {
+    String undashedUuid = undashed(uuidOf(username));
+
+    JsonObject skin = new JsonObject();
+    skin.addProperty("url", "http://textures.minecraft.net/texture/" + undashedUuid + "skin");
+    JsonObject cape = new JsonObject();
+    cape.addProperty("url", "http://textures.minecraft.net/texture/" + undashedUuid + "cape");
+    JsonObject textures = new JsonObject();
+    textures.add("SKIN", skin);
+    textures.add("CAPE", cape);
+    JsonObject value = new JsonObject();
+    value.addProperty("timestamp", 1653838459263L);
+    value.addProperty("profileId", undashedUuid);
+    value.addProperty("profileName", username);
+    value.add("textures", textures);
+
+    JsonObject property = new JsonObject();
+    property.addProperty("name", "textures");
+    property.addProperty("value", Base64.getEncoder().encodeToString(
+        value.toString().getBytes(StandardCharsets.UTF_8)));
+    JsonArray properties = new JsonArray();
+    properties.add(property);
+
+    JsonObject profile = profileJsonObject(username);
+    profile.add("properties", properties);
+    return profile.toString();
+  }
+
+  private MockResponse respondOrFail(RecordedRequest request) {
+    double roll = random.nextDouble();
+    if (roll < rateLimitRate) {
+      return new MockResponse()
+          .setResponseCode(429)
+          .setHeader("Retry-After", retryAfterSeconds);
+    }
+    if (roll < rateLimitRate + serverErrorRate) {
+      return new MockResponse().setResponseCode(503);
+    }
+    return respond(request);
+  }
+
+  private MockResponse respond(RecordedRequest request) {
+    String path = request.getRequestUrl().encodedPath();
+    String[] segments = path.substring(1).split("/");
+    if (path.startsWith("/users/profiles/minecraft/")) {
+      if (segments[3].startsWith(UNKNOWN_USERNAME_PREFIX)) {
+        return new MockResponse().setResponseCode(204);
+      }
+      return json(usernameToUuidJson(segments[3]));
+    } else if (path.equals("/profiles/minecraft")) {
+      JsonArray profiles = new JsonArray();
+      for (JsonElement username : JsonParser.parseString(request.getBody().readUtf8()).getAsJsonArray()) {
+        if (!username.getAsString().startsWith(UNKNOWN_USERNAME_PREFIX)) {
+          profiles.add(profileJsonObject(username.getAsString()));
+        }
+      }
+      return json(profiles.toString());
+    } else if (path.startsWith("/user/profiles/") && path.endsWith("/names")) {
+      return json(nameHistoryJson(usernameOf(StringUuids.uuidFromString(segments[2])), previousNames));
+    } else if (path.startsWith("/session/minecraft/profile/")) {
+      return json(profileJson(usernameOf(StringUuids.uuidFromString(segments[3]))));
+    }
+    return new MockResponse().setResponseCode(404);
+  }
+
+  private static MockResponse json(String body) {
+    return new MockResponse()
+        .setHeader("Content-Type", "application/json")
+        .setBody(body);
+  }
+
+  private static JsonObject profileJsonObject(String username) {
+    JsonObject jsonObject = new JsonObject();
+    jsonObject.addProperty("id", undashed(uuidOf(username)));
+    jsonObject.addProperty("name", username);
+    return jsonObject;
+  }
+
+  private static String undashed(UUID uuid) {
+    return uuid.toString().replace("-", "");
+  }
+
+  /** Builder to create {@link MockMojangServer}s. */
+  public static final class Builder {
+    private Duration latency = Duration.ZERO;
+    private double serverErrorRate;
+    private double rateLimitRate;
+    private int retryAfterSeconds = 1;
+    private int previousNames = 2;
+    private long seed = 42;
+
+    private Builder() {}
+
+    /** Sets the delay before the headers of each response are sent. */
+    public Builder latency(Duration latency) {
+      checkArgument(!latency.isNegative(), "latency must not be negative");
+      this.latency = latency;
+      return this;
+    }
+
+    /** Sets the ratio of the requests answered with a {@code 503 Service Unavailable}. */
+    public Builder serverErrorRate(double serverErrorRate) {
+      checkArgument(serverErrorRate >= 0 && serverErrorRate <= 1, "serverErrorRate must be in [0, 1]");
+      this.serverErrorRate = serverErrorRate;
+      return this;
+    }
+
+    /** Sets the ratio of the requests answered with a {@code 429 Too Many Requests}. */
+    public Builder rateLimitRate(double rateLimitRate) {
+      checkArgument(rateLimitRate >= 0 && rateLimitRate <= 1, "rateLimitRate must be in [0, 1]");
+      this.rateLimitRate = rateLimitRate;
+      return this;
+    }
+
+    /** Sets the {@code Retry-After} seconds of the rate limit responses, by default 1. */
+    public Builder retryAfterSeconds(int retryAfterSeconds) {
+      checkArgument(retryAfterSeconds >= 0, "retryAfterSeconds must not be negative");
+      this.retryAfterSeconds = retryAfterSeconds;
+      return this;
+    }
+
+    /** Sets the number of previous names in the name histories, which drives their payload size. */
+    public Builder previousNames(int previousNames) {
+      checkArgument(previousNames >= 0, "previousNames must not be negative");
+      this.previousNames = previousNames;
+      return this;
+    }
+
+    /** Sets the seed deciding which requests fail, so that runs are reproducible. */
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /** @return a new started {@link MockMojangServer} from this builder. */
+    public MockMojangServer build() throws IOException {
+      checkArgument(serverErrorRate + rateLimitRate <= 1, "the failure rates must add up to at most 1");
+      return new MockMojangServer(this);
+    }
+  }
+
+  /**
+   * Disables Nagle's algorithm on the accepted sockets, the server writes the headers and the body of
+   * the responses separately, and otherwise each response waits for the delayed ack of the client.
+   */
+  static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+      return new ServerSocket() {
+        @Override
+        public Socket accept() throws IOException {
+          Socket socket = super.accept();
+          socket.setTcpNoDelay(true);
+          return socket;
+        }
+      };
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+      return createServerSocket(port, 0, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+      return createServerSocket(port, backlog, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress bindAddress) throws IOException {
+      ServerSocket serverSocket = createServerSocket();
+      try {
+        // A null address binds to all the local addresses, and a non-positive backlog uses the default one.
+        serverSocket.bind(new InetSocketAddress(bindAddress, port), backlog);
+      } catch (IOException e) {
+        serverSocket.close();
+        throw e;
+      }
+      return serverSocket;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link LoadGenerator}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class LoadGeneratorTest {
+
+  @Test
+  public void testReportsEveryLookup() throws Exception {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      LoadReport report = LoadGenerator.newBuilder()
+          .requestsPerSecond(200)
+          .duration(Duration.ofMillis(500))
+          .build()
+          .run(i -> {
+            if (i % 10 == 0) {
+              return Futures.immediateFailedFuture(new IllegalStateException());
+            }
+            SettableFuture<Void> future = SettableFuture.create();
+            scheduler.schedule(() -> future.set(null), 20, TimeUnit.MILLISECONDS);
+            return future;
+          });
+      assertEquals(100, report.requestCount());
+      assertEquals(90, report.successCount());
+      assertEquals(10, report.failureCount());
+      assertTrue(report.elapsed().toMillis() >= 480);
+      assertTrue(report.p99Latency().toMillis() >= 20);
+      assertTrue(report.p50Latency().compareTo(report.p90Latency()) <= 0);
+      assertFalse(report.upstreamRequestCount().isPresent());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCountsUpstreamRequests() throws Exception {
+    try (MockMojangServer server = MockMojangServer.newBuilder()
+        .rateLimitRate(0.5)
+        .build()) {
+      OkHttpClient httpClient = server.httpClientBuilder().build();
+      LoadReport report = LoadGenerator.newBuilder()
+          .requestsPerSecond(100)
+          .duration(Duration.ofMillis(200))
+          .server(server)
+          .build()
+          .run(i -> {
+            SettableFuture<Integer> future = SettableFuture.create();
+            httpClient.newCall(new Request.Builder()
+                .url("https://api.mojang.com/users/profiles/minecraft/player" + i)
+                .build())
+                .enqueue(new Callback() {
+                  @Override
+                  public void onFailure(Call call, IOException e) {
+                    future.setException(e);
+                  }
+
+                  @Override
+                  public void onResponse(Call call, Response response) {
+                    response.close();
+                    future.set(response.code());
+                  }
+                });
+            return future;
+          });
+      assertEquals(20, report.requestCount());
+      assertEquals(20, report.upstreamRequestCount().getAsLong());
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 - Gaston Gonzalez (Gonalez)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.gonalez.zenbo.testing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.UUID;
+
+/**
+ * Tests for the {@link MockMojangServer}.
+ *
+ * @author Gaston Gonzalez (Gonalez)
+ */
+public class MockMojangServerTest {
+  @Test
+  public void testUsernamesRoundTripThroughUuids() {
+    for (String username : new String[] {"Notch", "player_123", "a", "sixteen_chars_16"}) {
+      UUID uuid = MockMojangServer.uuidOf(username);
+      assertEquals(uuid, MockMojangServer.uuidOf(username.toUpperCase()));
+      assertEquals(username.toLowerCase(), MockMojangServer.usernameOf(uuid));
+    }
+    assertNotEquals(MockMojangServer.uuidOf("player1"), MockMojangServer.uuidOf("player10"));
+  }
+
+  @Test
+  public void testUnencodableUsernamesGetGeneratedUsernames() {
+    UUID uuid = MockMojangServer.uuidOf("seventeen_chars17");
+    assertTrue(MockMojangServer.usernameOf(uuid).startsWith("player_"));
+    assertTrue(MockMojangServer.usernameOf(UUID.randomUUID()).startsWith("player_"));
+  }
+
+  @Test
+  public void testServerSocketFactoryBindsEveryOverload() throws Exception {
+    MockMojangServer.NoDelayServerSocketFactory factory = new MockMojangServer.NoDelayServerSocketFactory();
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    try (ServerSocket first = factory.createServerSocket(0);
+         ServerSocket second = factory.createServerSocket(0, 10);
+         ServerSocket third = factory.createServerSocket(0, 10, loopback)) {
+      assertTrue(first.isBound());
+      assertTrue(second.isBound());
+      assertEquals(loopback, third.getInetAddress());
+
+      try (Socket client = new Socket(loopback, third.getLocalPort());
+           Socket accepted = third.accept()) {
+        assertTrue(accepted.getTcpNoDelay());
+      }
+    }
+  }
+}